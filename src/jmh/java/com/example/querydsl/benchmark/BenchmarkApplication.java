@@ -0,0 +1,26 @@
+package com.example.querydsl.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.querydsl.QuerydslApplication;
+
+/**
+ * 벤치마크용 애플리케이션 컨텍스트
+ * application.yml은 TCP H2를 바라보니까 in-memory H2로 바꾸고, SQL 로그(p6spy, hibernate)는 끈다.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=jmh",
+                     "--spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                     "--decorator.datasource.enabled=false",
+                     "--logging.level.org.hibernate.SQL=warn");
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.querydsl.benchmark;
+
+import static com.example.querydsl.entity.QMember.member;
+import static org.springframework.util.StringUtils.hasText;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.repository.MemberSearchQueryTemplates;
+import com.example.querydsl.repository.TeamDictionary;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+/**
+ * 매 요청마다 Querydsl 쿼리를 조립/직렬화하는 방식과 MemberSearchQueryTemplates(모양별 JPQL 캐시) 비교
+ * 결과가 몇 건 안 되는 조건이라 쿼리 조립 비용 차이가 그대로 드러난다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchQueryTemplateBenchmark {
+    private static final int ROWS = 1000;
+
+    @Param({"username", "teamName_age", "all"})
+    public String shape;
+
+    private ConfigurableApplicationContext context;
+    private JPAQueryFactory queryFactory;
+    private MemberSearchQueryTemplates templates;
+    private TeamDictionary teamDictionary;
+    private MemberSearchCondition condition;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start();
+        queryFactory = context.getBean(JPAQueryFactory.class);
+        templates = context.getBean(MemberSearchQueryTemplates.class);
+        teamDictionary = context.getBean(TeamDictionary.class);
+
+        EntityManager em = context.getBean(EntityManagerFactory.class).createEntityManager();
+        em.getTransaction().begin();
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < ROWS; i++) {
+            em.persist(new Member("member" + i, i % 100, i % 2 == 0 ? teamA : teamB));
+        }
+        em.getTransaction().commit();
+        em.close();
+
+        condition = new MemberSearchCondition();
+        switch (shape) {
+            case "username":
+                condition.setUsername("member10");
+                break;
+            case "teamName_age":
+                condition.setTeamName("teamB");
+                condition.setAgeGoe(10);
+                condition.setAgeLoe(12);
+                break;
+            default:
+                condition.setUsername("member11");
+                condition.setTeamName("teamB");
+                condition.setAgeGoe(10);
+                condition.setAgeLoe(12);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // cachedTemplate과 같은 쿼리(team 조인 없이 member.team.id + TeamDictionary)를 매번 조립한다. JPQL 캐시 효과만 비교하기 위해
+    @Benchmark
+    public List<MemberTeamDto> querydslPerRequest() {
+        Long teamId = null;
+        if (hasText(condition.getTeamName())) {
+            teamId = teamDictionary.findId(condition.getTeamName());
+            if (teamId == null) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<Tuple> rows = queryFactory
+                .select(member.id, member.username, member.age, member.team.id)
+                .from(member)
+                .where(
+                        hasText(condition.getUsername()) ? member.username.eq(condition.getUsername()) : null,
+                        teamId != null ? member.team.id.eq(teamId) : null,
+                        condition.getAgeGoe() != null ? member.age.goe(condition.getAgeGoe()) : null,
+                        condition.getAgeLoe() != null ? member.age.loe(condition.getAgeLoe()) : null
+                )
+                .fetch();
+
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Long rowTeamId = row.get(member.team.id);
+            result.add(new MemberTeamDto(row.get(member.id), row.get(member.username), row.get(member.age),
+                                         rowTeamId, teamDictionary.findName(rowTeamId)));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> cachedTemplate() {
+        return templates.search(condition);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.querydsl.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * 한 엔드포인트에 대한 측정 결과
+ */
+class LatencyStats {
+    private final String name;
+    private final long[] sortedNanos;
+    private final long elapsedNanos;
+    private final long statements;
+    private final int errors;
+
+    LatencyStats(String name, long[] latencyNanos, long elapsedNanos, long statements, int errors) {
+        this.name = name;
+        this.sortedNanos = latencyNanos.clone();
+        Arrays.sort(this.sortedNanos);
+        this.elapsedNanos = elapsedNanos;
+        this.statements = statements;
+        this.errors = errors;
+    }
+
+    static String header() {
+        return String.format("%-12s %8s %10s %10s %10s %12s %10s %8s",
+                             "endpoint", "requests", "p50(ms)", "p95(ms)", "p99(ms)", "req/s", "sql/req", "errors");
+    }
+
+    @Override
+    public String toString() {
+        int requests = sortedNanos.length;
+        return String.format("%-12s %8d %10.2f %10.2f %10.2f %12.1f %10.2f %8d",
+                             name,
+                             requests,
+                             percentileMillis(0.50),
+                             percentileMillis(0.95),
+                             percentileMillis(0.99),
+                             requests / (elapsedNanos / 1_000_000_000.0),
+                             (double) statements / requests,
+                             errors);
+    }
+
+    private double percentileMillis(double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.querydsl.loadtest;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Profile("loadtest")
+@Configuration
+public class LoadTestConfiguration {
+
+    @Bean
+    StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+}
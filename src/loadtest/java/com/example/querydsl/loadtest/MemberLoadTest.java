@@ -0,0 +1,124 @@
+package com.example.querydsl.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.querydsl.QuerydslApplication;
+import com.example.querydsl.service.MemberSeeder;
+
+/**
+ * /v1 ~ /v4 회원 검색 엔드포인트 부하 테스트
+ *
+ * in-memory H2로 애플리케이션을 띄우고 데이터를 넣은 뒤, 엔드포인트마다 동시에 요청을 보내서
+ * p50/p95/p99 응답시간, 처리량, 요청당 SQL 실행 수를 출력한다.
+ *
+ * ./gradlew loadTest -Dloadtest.members=200000 -Dloadtest.threads=32
+ *
+ * 옵션 (system property)
+ * - loadtest.teams : 팀 수 (기본 100)
+ * - loadtest.members : 회원 수 (기본 100000)
+ * - loadtest.threads : 동시 요청 수 (기본 16)
+ * - loadtest.requests : 엔드포인트당 요청 수 (기본 2000)
+ * - loadtest.warmup : 엔드포인트당 워밍업 요청 수 (기본 200)
+ * - loadtest.query : 검색 조건 (기본 teamName=teamB&ageGoe=20&ageLoe=60)
+ * - loadtest.page : /v2 ~ /v4 에서 요청할 페이지 (기본 10)
+ * - loadtest.size : 페이지 크기 (기본 20)
+ * 그 외 애플리케이션 설정은 인자로 넘긴다. ex) ./gradlew loadTest --args='--member.seed.team-skew=3'
+ */
+public class MemberLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int teams = Integer.getInteger("loadtest.teams", 100);
+        int members = Integer.getInteger("loadtest.members", 100_000);
+        int threads = Integer.getInteger("loadtest.threads", 16);
+        int requests = Integer.getInteger("loadtest.requests", 2000);
+        int warmup = Integer.getInteger("loadtest.warmup", 200);
+        String query = System.getProperty("loadtest.query", "teamName=teamB&ageGoe=20&ageLoe=60");
+        String paging = "&page=" + Integer.getInteger("loadtest.page", 10) + "&size=" + Integer.getInteger("loadtest.size", 20);
+
+        String[] bootArgs = Stream.concat(Stream.of("--spring.profiles.active=loadtest"), Arrays.stream(args))
+                                  .toArray(String[]::new);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .run(bootArgs)) {
+            context.getBean(MemberSeeder.class).seed(teams, members);
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            StatementCounter statementCounter = context.getBean(StatementCounter.class);
+
+            Map<String, String> endpoints = new LinkedHashMap<>();
+            endpoints.put("/v1/members", query);
+            endpoints.put("/v2/members", query + paging);
+            endpoints.put("/v3/members", query + paging);
+            endpoints.put("/v4/members", query + paging);
+
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<LatencyStats> results = new ArrayList<>();
+                for (Map.Entry<String, String> endpoint : endpoints.entrySet()) {
+                    URI uri = URI.create("http://localhost:" + port + endpoint.getKey() + "?" + endpoint.getValue());
+                    run(client, executor, threads, uri, warmup, endpoint.getKey(), statementCounter);
+                    results.add(run(client, executor, threads, uri, requests, endpoint.getKey(), statementCounter));
+                }
+
+                System.out.printf("%nteams=%d, members=%d, threads=%d, query=%s%n", teams, members, threads, query);
+                System.out.println(LatencyStats.header());
+                results.forEach(System.out::println);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static LatencyStats run(HttpClient client, ExecutorService executor, int threads, URI uri, int requests,
+                                    String name, StatementCounter statementCounter) throws Exception {
+        long[] latencyNanos = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+
+        long statementsBefore = statementCounter.count();
+        long start = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> {
+                int index;
+                while ((index = next.getAndIncrement()) < requests) {
+                    long requestStart = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencyNanos[index] = System.nanoTime() - requestStart;
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        return new LatencyStats(name, latencyNanos, elapsedNanos, statementCounter.count() - statementsBefore, errors.get());
+    }
+}
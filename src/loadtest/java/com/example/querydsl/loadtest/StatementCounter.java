@@ -0,0 +1,24 @@
+package com.example.querydsl.loadtest;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+
+/**
+ * p6spy를 통과하는 모든 JDBC 실행 횟수 (batch는 executeBatch 한 번으로 센다)
+ * p6spy-spring-boot-starter는 JdbcEventListener 빈을 자동으로 등록해준다.
+ */
+public class StatementCounter extends SimpleJdbcEventListener {
+    private final LongAdder count = new LongAdder();
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        count.increment();
+    }
+
+    public long count() {
+        return count.sum();
+    }
+}
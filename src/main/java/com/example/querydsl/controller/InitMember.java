@@ -1,15 +1,12 @@
 package com.example.querydsl.controller;
 
 import javax.annotation.PostConstruct;
-import javax.persistence.EntityManager;
-import javax.persistence.PersistenceContext;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.example.querydsl.entity.Member;
-import com.example.querydsl.entity.Team;
+import com.example.querydsl.service.MemberSeeder;
 
 import lombok.RequiredArgsConstructor;
 
@@ -18,30 +15,16 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class InitMember {
 
-    private final InitMemberService initMemberService;
+    private final MemberSeeder memberSeeder;
 
-    @PostConstruct
-    public void init() {
-        initMemberService.init(); // 스프링 라이플 사이클에서는 postConstruct에 Transaction 동작을 같이 공존할 수가 없어서 이렇게 처리함
-    }
-
-    @Component
-    static class InitMemberService {
-        @PersistenceContext
-        private EntityManager em;
+    @Value("${member.seed.teams:2}")
+    private int teams;
 
-        @Transactional
-        public void init() {
-            Team teamA = new Team("teamA");
-            Team teamB = new Team("teamB");
-            em.persist(teamA);
-            em.persist(teamB);
-
-            for (int i = 0; i < 100; i++) {
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member" + i, i, selectedTeam));
-            }
-        }
+    @Value("${member.seed.members:100}")
+    private int members;
 
+    @PostConstruct
+    public void init() {
+        memberSeeder.seed(teams, members); // 트랜잭션은 MemberSeeder가 직접 나눠서 건다. ex) --member.seed.members=1000000
     }
 }
@@ -1,46 +1,269 @@
 package com.example.querydsl.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.querydsl.dto.MemberKeysetSort;
 import com.example.querydsl.dto.MemberSearchCondition;
 import com.example.querydsl.dto.MemberTeamDto;
+import com.example.querydsl.repository.MemberDataVersion;
 import com.example.querydsl.repository.MemberJpaRepository;
 import com.example.querydsl.repository.MemberRepository;
+import com.example.querydsl.repository.MemberTestRepository;
+import com.example.querydsl.repository.support.InvalidKeysetCursorException;
+import com.example.querydsl.repository.support.KeysetPage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
 @RestController
 public class MemberController {
+    private static final int MAX_KEYSET_SIZE = 2000; // Pageable과 같은 상한 (spring.data.web.pageable.max-page-size 기본값)
+
+    // 필드 이름은 미리 인코딩해둔다. (MemberTeamDto JSON과 같은 이름)
+    private static final SerializableString CONTENT = new SerializedString("content");
+    private static final SerializableString MEMBER_ID = new SerializedString("memberId");
+    private static final SerializableString USERNAME = new SerializedString("username");
+    private static final SerializableString AGE = new SerializedString("age");
+    private static final SerializableString TEAM_ID = new SerializedString("teamId");
+    private static final SerializableString TEAM_NAME = new SerializedString("teamName");
+    private static final SerializableString NUMBER = new SerializedString("number");
+    private static final SerializableString SIZE = new SerializedString("size");
+    private static final SerializableString TOTAL_ELEMENTS = new SerializedString("totalElements");
 
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberTestRepository memberTestRepository;
+    private final MemberDataVersion memberDataVersion;
+    private final MemberSearchExecutor memberSearchExecutor;
+    private final ObjectMapper objectMapper;
 
+    // Accept: application/vnd.member.columnar 이면 MemberTeamColumnarHttpMessageConverter가 바이너리로 쓴다. (/v2 ~ /v4도 같음)
     @GetMapping("/v1/members")
-    public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) { // query string으로 받는다. ex) http://localhost:8080/v1/members?teamName=teamB&ageGoe=31&ageLoe=35
+    public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition, WebRequest webRequest) { // query string으로 받는다. ex) http://localhost:8080/v1/members?teamName=teamB&ageGoe=31&ageLoe=35
+        if (webRequest.checkNotModified(etag(webRequest))) {
+            return null; // 304, 데이터가 안 바뀌었으면 쿼리를 날리지 않는다.
+        }
         return memberJpaRepository.search(condition);
     }
 
+    @GetMapping(value = "/v1/members/export", produces = MediaType.APPLICATION_NDJSON_VALUE)//전체 결과를 List로 만들지 않고 한 줄에 한 건씩 바로 내려준다.
+    public StreamingResponseBody exportMemberV1(MemberSearchCondition condition) {
+        ObjectWriter writer = objectMapper.writerFor(MemberTeamDto.class)
+                                          .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE); // 건마다 flush 하지 않고 버퍼가 찰 때만 내보낸다.
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                memberJpaRepository.searchForEach(condition, dto -> {
+                    try {
+                        writer.writeValue(generator, dto);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+    }
+
+    // /v2 ~ /v4 공통 : approximateTotal=true면 카운트를 threshold까지만 세고 응답에 totalApproximate를 표시한다.
+    //                 If-None-Match가 현재 데이터 버전(ETag)과 같으면 304
     @GetMapping("/v2/members")
     public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition,
-                                              Pageable pageable) { //스프링 데이터가 Pageable을 바로 받을 수 있게 해준다.
-        return memberRepository.searchPageSimple(condition, pageable);
+                                              Pageable pageable, //스프링 데이터가 Pageable을 바로 받을 수 있게 해준다.
+                                              @RequestParam(defaultValue = "false") boolean approximateTotal,
+                                              WebRequest webRequest) {
+        if (webRequest.checkNotModified(etag(webRequest))) {
+            return null;
+        }
+        return searchV2(condition, pageable, approximateTotal);
     }
 
     @GetMapping("/v3/members")//컨텐츠와 카운트 쿼리 분리
     public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition,
-                                              Pageable pageable) { //스프링 데이터가 Pageable을 바로 받을 수 있게 해준다.
-        return memberRepository.searchPageComplex(condition, pageable);
+                                              Pageable pageable, //스프링 데이터가 Pageable을 바로 받을 수 있게 해준다.
+                                              @RequestParam(defaultValue = "false") boolean approximateTotal,
+                                              WebRequest webRequest) {
+        if (webRequest.checkNotModified(etag(webRequest))) {
+            return null;
+        }
+        return searchV3(condition, pageable, approximateTotal);
     }
 
     @GetMapping("/v4/members")//극한의 카운트 쿼리
     public Page<MemberTeamDto> searchMemberV4(MemberSearchCondition condition,
-                                              Pageable pageable) { //스프링 데이터가 Pageable을 바로 받을 수 있게 해준다.
+                                              Pageable pageable, //스프링 데이터가 Pageable을 바로 받을 수 있게 해준다.
+                                              @RequestParam(defaultValue = "false") boolean approximateTotal,
+                                              WebRequest webRequest) {
+        if (webRequest.checkNotModified(etag(webRequest))) {
+            return null;
+        }
+        return searchV4(condition, pageable, approximateTotal);
+    }
+
+    /**
+     * Accept: application/vnd.member.page+json 일 때의 /v2 ~ /v4
+     * 조회 결과를 MemberTeamDto, List, PageImpl로 만들지 않고 커서에서 읽는 대로 JsonGenerator에 쓴다.
+     * 페이지 정보는 number, size, totalElements만 내려준다. (카운트는 /v3처럼 캐시, 마지막 페이지면 카운트 쿼리 생략)
+     */
+    @GetMapping(value = {"/v2/members", "/v3/members", "/v4/members"}, produces = MemberMediaTypes.MEMBER_PAGE_JSON_VALUE)
+    public StreamingResponseBody searchMemberPageJson(MemberSearchCondition condition, Pageable pageable, WebRequest webRequest) {
+        if (webRequest.checkNotModified(memberDataVersion.etag("page"))) {
+            return null;
+        }
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartObject();
+                generator.writeFieldName(CONTENT);
+                generator.writeStartArray();
+                long total = memberRepository.searchPageForEach(condition, pageable, (memberId, username, age, teamId, teamName) -> {
+                    try {
+                        generator.writeStartObject();
+                        generator.writeFieldName(MEMBER_ID);
+                        generator.writeNumber(memberId);
+                        generator.writeFieldName(USERNAME);
+                        generator.writeString(username);
+                        generator.writeFieldName(AGE);
+                        generator.writeNumber(age);
+                        generator.writeFieldName(TEAM_ID);
+                        if (teamId == null) {
+                            generator.writeNull();
+                        } else {
+                            generator.writeNumber(teamId);
+                        }
+                        generator.writeFieldName(TEAM_NAME);
+                        generator.writeString(teamName);
+                        generator.writeEndObject();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+                generator.writeFieldName(NUMBER);
+                generator.writeNumber(pageable.getPageNumber());
+                generator.writeFieldName(SIZE);
+                generator.writeNumber(pageable.getPageSize());
+                generator.writeFieldName(TOTAL_ELEMENTS);
+                generator.writeNumber(total);
+                generator.writeEndObject();
+            }
+        };
+    }
+
+    // /v1 ~ /v4 비동기 : 조회는 MemberSearchExecutor에서 실행하고 Tomcat 스레드는 바로 반환한다. (느린 카운트 쿼리가 요청 스레드를 잡지 않도록)
+    @GetMapping("/v1/members/async")
+    public CompletableFuture<List<MemberTeamDto>> searchMemberV1Async(MemberSearchCondition condition, WebRequest webRequest) {
+        if (webRequest.checkNotModified(etag(webRequest))) {
+            return null;
+        }
+        return memberSearchExecutor.submit(() -> memberJpaRepository.search(condition));
+    }
+
+    @GetMapping("/v2/members/async")
+    public CompletableFuture<Page<MemberTeamDto>> searchMemberV2Async(MemberSearchCondition condition,
+                                                                      Pageable pageable,
+                                                                      @RequestParam(defaultValue = "false") boolean approximateTotal,
+                                                                      WebRequest webRequest) {
+        if (webRequest.checkNotModified(etag(webRequest))) {
+            return null;
+        }
+        return memberSearchExecutor.submit(() -> searchV2(condition, pageable, approximateTotal));
+    }
+
+    @GetMapping("/v3/members/async")
+    public CompletableFuture<Page<MemberTeamDto>> searchMemberV3Async(MemberSearchCondition condition,
+                                                                      Pageable pageable,
+                                                                      @RequestParam(defaultValue = "false") boolean approximateTotal,
+                                                                      WebRequest webRequest) {
+        if (webRequest.checkNotModified(etag(webRequest))) {
+            return null;
+        }
+        return memberSearchExecutor.submit(() -> searchV3(condition, pageable, approximateTotal));
+    }
+
+    @GetMapping("/v4/members/async")
+    public CompletableFuture<Page<MemberTeamDto>> searchMemberV4Async(MemberSearchCondition condition,
+                                                                      Pageable pageable,
+                                                                      @RequestParam(defaultValue = "false") boolean approximateTotal,
+                                                                      WebRequest webRequest) {
+        if (webRequest.checkNotModified(etag(webRequest))) {
+            return null;
+        }
+        return memberSearchExecutor.submit(() -> searchV4(condition, pageable, approximateTotal));
+    }
+
+    @ExceptionHandler(TaskRejectedException.class) // 검색 스레드와 큐가 다 찼으면 바로 거절한다.
+    public ResponseEntity<Void> searchExecutorBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                             .header(HttpHeaders.RETRY_AFTER, "1")
+                             .build();
+    }
+
+    @GetMapping("/v5/members")//offset 대신 커서(keyset) 페이징, 응답의 nextCursor를 다음 요청의 cursor로 넘긴다.
+    public KeysetPage<MemberTeamDto> searchMemberV5(MemberSearchCondition condition,
+                                                    @RequestParam(defaultValue = "ID") MemberKeysetSort sort,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "20") int size) { // ex) http://localhost:8080/v5/members?sort=AGE&size=20
+        if (size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be greater than zero");
+        }
+        return memberTestRepository.searchKeyset(condition, sort, cursor, Math.min(size, MAX_KEYSET_SIZE));
+    }
+
+    @ExceptionHandler(InvalidKeysetCursorException.class) // 깨졌거나 조작된 커서는 클라이언트 잘못
+    public ResponseEntity<Void> invalidCursor() {
+        return ResponseEntity.badRequest().build();
+    }
+
+    private Page<MemberTeamDto> searchV2(MemberSearchCondition condition, Pageable pageable, boolean approximateTotal) {
+        if (approximateTotal) {
+            return memberRepository.searchPageApproximateCount(condition, pageable);
+        }
+        return memberRepository.searchPageSimple(condition, pageable);
+    }
+
+    private Page<MemberTeamDto> searchV3(MemberSearchCondition condition, Pageable pageable, boolean approximateTotal) {
+        if (approximateTotal) {
+            return memberRepository.searchPageApproximateCount(condition, pageable);
+        }
+        return memberRepository.searchPageComplex(condition, pageable);
+    }
+
+    private Page<MemberTeamDto> searchV4(MemberSearchCondition condition, Pageable pageable, boolean approximateTotal) {
+        if (approximateTotal) {
+            return memberRepository.searchPageApproximateCount(condition, pageable);
+        }
         return memberRepository.searchPageExtremeCountQuery(condition, pageable);
     }
+
+    // 같은 URL이라도 Accept에 따라 응답 형식(JSON, columnar)이 달라지니 ETag도 나눈다.
+    private String etag(WebRequest webRequest) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(MemberMediaTypes.MEMBER_COLUMNAR_VALUE)
+               ? memberDataVersion.etag("columnar")
+               : memberDataVersion.etag();
+    }
 }
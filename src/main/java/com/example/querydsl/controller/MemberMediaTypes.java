@@ -0,0 +1,19 @@
+package com.example.querydsl.controller;
+
+import org.springframework.http.MediaType;
+
+/**
+ * 검색 API가 Accept 헤더로 골라 받을 수 있는 응답 형식
+ */
+public final class MemberMediaTypes {
+    // {"content":[...],"number":0,"size":20,"totalElements":100} - Page JSON에서 pageable, sort 등을 뺀 형식
+    public static final String MEMBER_PAGE_JSON_VALUE = "application/vnd.member.page+json";
+    public static final MediaType MEMBER_PAGE_JSON = MediaType.valueOf(MEMBER_PAGE_JSON_VALUE);
+
+    // List/Page<MemberTeamDto>를 컬럼 단위로 담은 바이너리 (MemberTeamColumnarHttpMessageConverter)
+    public static final String MEMBER_COLUMNAR_VALUE = "application/vnd.member.columnar";
+    public static final MediaType MEMBER_COLUMNAR = MediaType.valueOf(MEMBER_COLUMNAR_VALUE);
+
+    private MemberMediaTypes() {
+    }
+}
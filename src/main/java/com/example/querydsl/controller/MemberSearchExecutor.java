@@ -0,0 +1,64 @@
+package com.example.querydsl.controller;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * 비동기 검색 API(/v1 ~ /v4 .../async)의 조회를 Tomcat 요청 스레드 대신 실행하는 전용 스레드 풀
+ * 조회마다 커넥션을 하나 잡으니 스레드 수는 커넥션 풀 크기에 맞춘다. 큐가 가득 차면 TaskRejectedException (→ 503)
+ *
+ * 지표 : member.search.wait (큐에서 기다린 시간), executor.* {name=member.search} (큐 깊이, active 등)
+ * 빈(Executor)으로 등록하지 않는 이유 : 등록하면 스프링 부트 기본 applicationTaskExecutor가 빠진다. (StreamingResponseBody가 사용)
+ */
+@Component
+public class MemberSearchExecutor {
+    private final ThreadPoolTaskExecutor executor;
+
+    public MemberSearchExecutor(MeterRegistry meterRegistry,
+                                @Value("${member.async.threads:${spring.datasource.hikari.maximum-pool-size:10}}") int threads,
+                                @Value("${member.async.queue-capacity:100}") int queueCapacity) {
+        Timer waitTimer = Timer.builder("member.search.wait")
+                               .description("비동기 검색이 스레드를 기다린 시간")
+                               .register(meterRegistry);
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("member-search-");
+        executor.setTaskDecorator(task -> {
+            long queuedAt = System.nanoTime();
+            return () -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                task.run();
+            };
+        });
+        executor.initialize();
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "member.search", Collections.emptyList()).bindTo(meterRegistry);
+    }
+
+    /**
+     * @throws TaskRejectedException 스레드와 큐가 모두 차있을 때
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> search) {
+        return CompletableFuture.supplyAsync(search, executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.querydsl.controller;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.example.querydsl.dto.MemberTeamDto;
+
+/**
+ * List/Page&lt;MemberTeamDto&gt; → application/vnd.member.columnar
+ * 행마다 teamName이 반복되는 JSON 대신 컬럼별로 모아서 쓰고, 팀은 사전(dictionary)으로 한 번만 쓴다. (쓰기 전용)
+ *
+ * 레이아웃 (DataOutputStream, big-endian, 문자열은 int 바이트 길이 + UTF-8, null이면 길이 -1)
+ * <pre>
+ * int    MAGIC ("MBRC")
+ * byte   VERSION
+ * int    rows
+ * long   totalElements (Page가 아니면 -1)
+ * long[] memberId
+ * str[]  username
+ * int[]  age
+ * int    teams
+ * (long teamId, str teamName)[teams]
+ * int[]  team (사전 index, 팀이 없으면 -1)
+ * </pre>
+ */
+public class MemberTeamColumnarHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    static final int MAGIC = 0x4D425243; // "MBRC"
+    static final byte VERSION = 1;
+
+    public MemberTeamColumnarHttpMessageConverter() {
+        super(MemberMediaTypes.MEMBER_COLUMNAR);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz) || Page.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        ResolvableType resolvableType = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz);
+        return isMemberTeamDtos(resolvableType.as(List.class)) || isMemberTeamDtos(resolvableType.as(Page.class));
+    }
+
+    // 제네릭 타입을 모르면(raw List 등) 원소 타입을 확인할 수 없으니 쓰지 않는다.
+    private static boolean isMemberTeamDtos(ResolvableType collectionType) {
+        return collectionType != ResolvableType.NONE && collectionType.getGeneric(0).resolve() == MemberTeamDto.class;
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        List<MemberTeamDto> rows;
+        long totalElements;
+        if (value instanceof Page) {
+            Page<MemberTeamDto> page = cast(value);
+            rows = page.getContent();
+            totalElements = page.getTotalElements();
+        } else {
+            rows = cast(value);
+            totalElements = -1;
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputMessage.getBody()));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(rows.size());
+        out.writeLong(totalElements);
+
+        for (MemberTeamDto row : rows) {
+            out.writeLong(row.getMemberId());
+        }
+        for (MemberTeamDto row : rows) {
+            writeString(out, row.getUsername());
+        }
+        for (MemberTeamDto row : rows) {
+            out.writeInt(row.getAge());
+        }
+
+        // teamId가 같으면 teamName도 같으니 teamId를 사전 키로 쓴다.
+        Map<Long, Integer> teamIndexes = new LinkedHashMap<>();
+        Map<Long, String> teamNames = new LinkedHashMap<>();
+        for (MemberTeamDto row : rows) {
+            if (row.getTeamId() != null && !teamIndexes.containsKey(row.getTeamId())) {
+                teamIndexes.put(row.getTeamId(), teamIndexes.size());
+                teamNames.put(row.getTeamId(), row.getTeamName());
+            }
+        }
+        out.writeInt(teamNames.size());
+        for (Map.Entry<Long, String> team : teamNames.entrySet()) {
+            out.writeLong(team.getKey());
+            writeString(out, team.getValue());
+        }
+        for (MemberTeamDto row : rows) {
+            out.writeInt(row.getTeamId() != null ? teamIndexes.get(row.getTeamId()) : -1);
+        }
+        out.flush();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value) {
+        return (T) value;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("application/vnd.member.columnar is write-only", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("application/vnd.member.columnar is write-only", inputMessage);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.querydsl.controller;
+
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class MemberWebConfig implements WebMvcConfigurer {
+
+    // 빈으로 등록하면 Jackson보다 앞에 들어가서 Accept: */* 요청까지 바이너리로 나간다. 그래서 맨 뒤에 추가한다.
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MemberTeamColumnarHttpMessageConverter());
+    }
+
+    // /v1 ~ /v4 는 같은 URL이 Accept에 따라 JSON/columnar로 나간다. 공유 캐시가 다른 형식을 내주지 않도록 Vary: Accept (304 포함)
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (!response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) { // async 재디스패치에서 또 불린다.
+                    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                }
+                return true;
+            }
+        }).addPathPatterns("/v1/members", "/v2/members", "/v3/members", "/v4/members",
+                           "/v1/members/async", "/v2/members/async", "/v3/members/async", "/v4/members/async");
+    }
+}
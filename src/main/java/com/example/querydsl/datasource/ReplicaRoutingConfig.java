@@ -0,0 +1,78 @@
+package com.example.querydsl.datasource;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * spring.datasource.replica.url이 있을 때만 켜진다. (없으면 기존처럼 DataSourceAutoConfiguration이 만든 DataSource 하나)
+ *
+ * primary : spring.datasource.* (+ spring.datasource.hikari.*)
+ * replica : spring.datasource.replica.* (+ spring.datasource.replica.hikari.*)
+ *
+ * primary/replica는 빈으로 등록하지 않는다. p6spy가 DataSource 빈마다 감싸서 쿼리가 두 번 잡히지 않도록.
+ * readOnly 트랜잭션 경계에서 커넥션을 새로 고를 수 있도록 open-in-view는 끈다. (application.yml)
+ * 켜져 있으면 요청 내내 EntityManager가 열려 있어서, 트랜잭션 전에 이미 잡은 primary 커넥션을 readOnly 트랜잭션에서도 그대로 쓴다.
+ * 주의 : replica는 복제 지연이 있으니, 방금 쓴 데이터를 바로 읽어야 하는 곳은 readOnly 트랜잭션을 쓰지 않는다.
+ */
+@Configuration
+@ConditionalOnProperty("spring.datasource.replica.url")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment) {
+        Binder binder = Binder.get(environment);
+        DataSourceProperties replicaProperties = binder.bind("spring.datasource.replica", DataSourceProperties.class).get();
+
+        HikariDataSource primary = hikari(properties, binder, "spring.datasource.hikari", "primary");
+        HikariDataSource replica = hikari(replicaProperties, binder, "spring.datasource.replica.hikari", "replica");
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(ReadWriteRoutingDataSource.Route.PRIMARY, primary,
+                                            ReadWriteRoutingDataSource.Route.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new RoutingDataSourceProxy(routing, primary, replica);
+    }
+
+    // 풀은 빈이 아니니까, 컨텍스트가 닫힐 때 직접 닫는다.
+    static class RoutingDataSourceProxy extends LazyConnectionDataSourceProxy implements DisposableBean {
+        private final HikariDataSource primary;
+        private final HikariDataSource replica;
+
+        RoutingDataSourceProxy(ReadWriteRoutingDataSource routing, HikariDataSource primary, HikariDataSource replica) {
+            super(routing);
+            this.primary = primary;
+            this.replica = replica;
+        }
+
+        @Override
+        public void destroy() {
+            replica.close();
+            primary.close();
+        }
+    }
+
+    private static HikariDataSource hikari(DataSourceProperties properties, Binder binder, String hikariPrefix, String poolName) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                                                .type(HikariDataSource.class)
+                                                .build();
+        binder.bind(hikariPrefix, Bindable.ofInstance(dataSource));
+        if (dataSource.getPoolName() == null) {
+            dataSource.setPoolName(poolName);
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.querydsl.dto;
+
+/**
+ * keyset 페이징 정렬 기준
+ * ID : (member.id)
+ * AGE : (age, member.id)
+ */
+public enum MemberKeysetSort {
+    ID,
+    AGE
+}
@@ -2,11 +2,14 @@ package com.example.querydsl.entity;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -16,13 +19,15 @@ import lombok.ToString;
 
 @Setter // 학습용
 @Entity
+@EntityListeners(MemberDataChangeListener.class)
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = { "id", "username", "age" }) // Team이 있으면 무한 참조에 빠짐
 public class Member {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50) // 시퀀스 한 번 호출로 id 50개를 확보 (optimizer는 application.yml 참고)
     @Column(name = "member_id")
     private Long id;
     private String username;
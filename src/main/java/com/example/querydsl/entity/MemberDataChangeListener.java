@@ -0,0 +1,72 @@
+package com.example.querydsl.entity;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 엔티티 리스너 - 스프링 부트가 Hibernate에 SpringBeanContainer를 넣어주기 때문에 생성자 주입이 가능하다.
+ *
+ * 트랜잭션 안이면 바뀐 엔티티 타입만 기록해두고 커밋/롤백 이후에 타입별로 한 번 발행한다. 트랜잭션 밖이면 바로 발행한다.
+ * MemberSeeder, MemberBulkWriter처럼 수백만 건을 쓸 때 행마다 캐시 무효화/버전 증가가 일어나지 않도록 한다.
+ * 공유 캐시는 커밋된 데이터로만 채우니(쓰기 트랜잭션 안에서는 캐시를 채우지 않는다) 커밋 이후 한 번이면 충분하다.
+ * 트랜잭션 안에서만 쓰는 캐시는 {@link #changeCount(Class)}로 자기 트랜잭션의 변경을 알아챈다.
+ * 참고 : JPQL 벌크 연산(update, delete)은 엔티티 리스너를 타지 않는다. 그쪽은 직접 이벤트를 발행해야 한다.
+ */
+public class MemberDataChangeListener {
+    private static final String CHANGE_COUNTS_KEY = MemberDataChangeListener.class.getName() + ".CHANGE_COUNTS";
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public MemberDataChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        Class<?> entityType = Hibernate.getClass(entity);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventPublisher.publishEvent(new MemberDataChangedEvent(entityType));
+            return;
+        }
+        changeCounts().merge(entityType, 1L, Long::sum); // 커밋/롤백 이후에 발행
+    }
+
+    /**
+     * @return 현재 트랜잭션에서 그 타입의 엔티티가 바뀐 횟수, 트랜잭션 밖이거나 바뀐 적이 없으면 0
+     */
+    @SuppressWarnings("unchecked")
+    public static long changeCount(Class<?> entityType) {
+        Map<Class<?>, Long> changeCounts = (Map<Class<?>, Long>) TransactionSynchronizationManager.getResource(CHANGE_COUNTS_KEY);
+        return changeCounts == null ? 0 : changeCounts.getOrDefault(entityType, 0L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Class<?>, Long> changeCounts() {
+        Map<Class<?>, Long> changeCounts = (Map<Class<?>, Long>) TransactionSynchronizationManager.getResource(CHANGE_COUNTS_KEY);
+        if (changeCounts != null) {
+            return changeCounts;
+        }
+
+        Map<Class<?>, Long> newChangeCounts = new LinkedHashMap<>();
+        TransactionSynchronizationManager.bindResource(CHANGE_COUNTS_KEY, newChangeCounts);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CHANGE_COUNTS_KEY);
+                newChangeCounts.keySet().forEach(type -> eventPublisher.publishEvent(new MemberDataChangedEvent(type)));
+            }
+        });
+        return newChangeCounts;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.querydsl.entity;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Member / Team 이 저장, 수정, 삭제되었을 때 발행되는 이벤트
+ * 조회 결과를 캐싱하는 쪽(카운트 캐시 등)은 이 이벤트를 받아서 무효화한다.
+ */
+@Getter
+@ToString
+public class MemberDataChangedEvent {
+    private final Class<?> entityType;
+
+    public MemberDataChangedEvent(Class<?> entityType) {
+        this.entityType = entityType;
+    }
+}
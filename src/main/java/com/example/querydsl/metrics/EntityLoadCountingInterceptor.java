@@ -0,0 +1,19 @@
+package com.example.querydsl.metrics;
+
+import java.io.Serializable;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.type.Type;
+
+/**
+ * Hibernate가 엔티티를 로딩(hydrate)할 때마다 ThreadQueryCounter에 센다.
+ * 세션 팩토리 전체에 하나만 등록되므로 상태를 가지면 안 된다. (MetricsConfig 참고)
+ */
+public class EntityLoadCountingInterceptor extends EmptyInterceptor {
+
+    @Override
+    public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+        ThreadQueryCounter.entityLoaded();
+        return false;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.querydsl.metrics;
+
+import java.sql.SQLException;
+
+import org.springframework.stereotype.Component;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+
+/**
+ * p6spy를 통과하는 JDBC 실행/ResultSet.next()를 ThreadQueryCounter에 센다.
+ * p6spy-spring-boot-starter가 JdbcEventListener 빈을 자동으로 등록해준다. (batch는 executeBatch 한 번으로 센다)
+ */
+@Component
+public class QueryCountingJdbcEventListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        ThreadQueryCounter.statementExecuted();
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        if (hasNext) {
+            ThreadQueryCounter.rowRead();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.querydsl.metrics;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Member 조회 레포지토리 public 메서드별 지표
+ * - member.repository : 실행 시간 (percentile histogram)
+ * - member.repository.statements / rows / entities : 호출 한 번에 실행한 SQL 수, 읽은 row 수, 로딩한 엔티티 수
+ *   rows는 JDBC ResultSet에서 읽은 row 수(ResultSet.next())다. 반환한 건수가 아니다. (카운트용 id 스캔, fetch join으로 중복된 row도 센다)
+ *
+ * percentile histogram은 실행 시간과 statements에만 켠다. 태그 조합(class x method x condition)마다 버킷 시계열이 수십 개씩 생기니까,
+ * rows/entities는 count/sum/max만 남긴다.
+ *
+ * 태그 condition에는 MemberSearchCondition에서 값이 있는 필드 이름만 넣는다. (값을 넣으면 태그 종류가 끝없이 늘어난다.)
+ * /actuator/metrics/member.repository?tag=condition:teamName,ageGoe 처럼 검색 모양별로 볼 수 있다.
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+    private static final String NO_CONDITION = "none";
+
+    private final MeterRegistry registry;
+
+    public RepositoryMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.example.querydsl.repository.MemberRepositoryImpl.*(..))"
+            + " || execution(public * com.example.querydsl.repository.MemberJpaRepository.*(..))"
+            + " || execution(public * com.example.querydsl.repository.MemberQueryRepository.*(..))"
+            + " || execution(public * com.example.querydsl.repository.MemberTestRepository.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        long statements = ThreadQueryCounter.statements();
+        long rows = ThreadQueryCounter.rows();
+        long entities = ThreadQueryCounter.entities();
+        long start = System.nanoTime();
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Tags tags = Tags.of("class", joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                                "method", joinPoint.getSignature().getName(),
+                                "condition", conditionShape(joinPoint.getArgs()));
+
+            Timer.builder("member.repository")
+                 .tags(tags)
+                 .tag("exception", exception)
+                 .publishPercentileHistogram()
+                 .register(registry)
+                 .record(elapsed, TimeUnit.NANOSECONDS);
+            summary("member.repository.statements", tags, true).record(ThreadQueryCounter.statements() - statements);
+            summary("member.repository.rows", tags, false).record(ThreadQueryCounter.rows() - rows);
+            summary("member.repository.entities", tags, false).record(ThreadQueryCounter.entities() - entities);
+        }
+    }
+
+    private DistributionSummary summary(String name, Tags tags, boolean histogram) {
+        return DistributionSummary.builder(name)
+                                  .tags(tags)
+                                  .publishPercentileHistogram(histogram)
+                                  .register(registry);
+    }
+
+    static String conditionShape(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberSearchCondition) {
+                MemberSearchCondition condition = (MemberSearchCondition) arg;
+                StringJoiner shape = new StringJoiner(",");
+                if (StringUtils.hasText(condition.getUsername())) {
+                    shape.add("username");
+                }
+                if (StringUtils.hasText(condition.getTeamName())) {
+                    shape.add("teamName");
+                }
+                if (condition.getAgeGoe() != null) {
+                    shape.add("ageGoe");
+                }
+                if (condition.getAgeLoe() != null) {
+                    shape.add("ageLoe");
+                }
+                return shape.length() == 0 ? NO_CONDITION : shape.toString();
+            }
+        }
+        return NO_CONDITION;
+    }
+}
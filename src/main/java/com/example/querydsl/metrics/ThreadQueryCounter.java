@@ -0,0 +1,43 @@
+package com.example.querydsl.metrics;
+
+/**
+ * 현재 스레드에서 실행된 JDBC statement 수, 읽은 row 수, 로딩한 엔티티 수 (누적값)
+ * 구간 측정은 시작/끝 값의 차이로 한다. 그래야 중첩 호출도 각자 자기 구간만 센다.
+ * 다른 스레드에서 실행한 쿼리(ConcurrentQueryExecutor 등)는 호출한 쪽에 잡히지 않는다.
+ */
+public final class ThreadQueryCounter {
+    private static final ThreadLocal<Counts> COUNTS = ThreadLocal.withInitial(Counts::new);
+
+    private ThreadQueryCounter() {
+    }
+
+    static void statementExecuted() {
+        COUNTS.get().statements++;
+    }
+
+    static void rowRead() {
+        COUNTS.get().rows++;
+    }
+
+    static void entityLoaded() {
+        COUNTS.get().entities++;
+    }
+
+    public static long statements() {
+        return COUNTS.get().statements;
+    }
+
+    public static long rows() {
+        return COUNTS.get().rows;
+    }
+
+    public static long entities() {
+        return COUNTS.get().entities;
+    }
+
+    private static class Counts {
+        private long statements;
+        private long rows;
+        private long entities;
+    }
+}
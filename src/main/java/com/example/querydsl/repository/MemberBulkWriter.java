@@ -0,0 +1,63 @@
+package com.example.querydsl.repository;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+
+/**
+ * 대량 insert 전용
+ * - 세션 JDBC batch size를 batchSize로 맞추고, batchSize 건마다 flush/clear 한다.
+ * - id는 pooled-lo 시퀀스(allocationSize 50)라서 row마다 시퀀스를 호출하지 않는다.
+ * - order_inserts 설정으로 team, member insert가 섞이지 않고 테이블별로 묶여서 나간다.
+ *
+ * 호출한 쪽 트랜잭션에 참여하면 그 영속성 컨텍스트도 같이 비워진다는 점에 주의.
+ * 연관관계는 member.setTeam(team)으로만 걸어주자. new Member(.., team)은 team.getMembers()까지 채우니까
+ * flush/clear 이후 준영속 팀의 컬렉션을 건드리게 된다.
+ */
+@Repository
+public class MemberBulkWriter {
+    private final EntityManager em;
+    private final int batchSize;
+
+    public MemberBulkWriter(EntityManager em, @Value("${member.bulk.insert-batch-size:500}") int batchSize) {
+        this.em = em;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    public void writeTeams(List<Team> teams) {
+        write(teams);
+    }
+
+    @Transactional
+    public void writeMembers(List<Member> members) {
+        write(members);
+    }
+
+    @Transactional
+    public void write(List<Team> teams, List<Member> members) {
+        write(teams);
+        write(members);
+    }
+
+    private void write(List<?> entities) {
+        em.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        for (int i = 0; i < entities.size(); i++) {
+            em.persist(entities.get(i));
+            if ((i + 1) % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.querydsl.repository;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.entity.MemberDataChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * 검색 조건별 카운트 쿼리 결과 캐시
+ * 같은 조건으로 페이지만 넘기는 경우 매번 member left join team 카운트 쿼리를 날리지 않도록 한다.
+ * 크기/TTL로 제한하고, Member나 Team이 바뀌면 전부 비운다.
+ * 쓰기 트랜잭션 안에서 센 카운트는 커밋 안 된 row가 섞여 있을 수 있어서 저장하지 않는다. (다른 요청이 보게 되니까)
+ * 카운트 쿼리는 Caffeine compute 밖에서 실행한다. (같은 bin에 들어간 다른 조건이 쿼리가 끝날 때까지 기다리지 않도록)
+ * 대신 세는 도중에 무효화되면 그 결과는 저장하지 않는다. (TeamDictionary와 같은 방식)
+ */
+@Component
+public class MemberCountCache {
+    private final Cache<MemberSearchCondition, Long> cache;
+    private final AtomicLong generation = new AtomicLong(); // 세는 도중에 무효화되면 다 센 결과를 버리기 위해
+
+    public MemberCountCache(@Value("${member.count-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${member.count-cache.expire-after-write:30s}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(maximumSize)
+                             .expireAfterWrite(expireAfterWrite)
+                             .build();
+    }
+
+    public long get(MemberSearchCondition condition, LongSupplier countQuery) {
+        if (!isCommittedView()) {
+            return countQuery.getAsLong();
+        }
+        MemberSearchCondition key = normalize(condition);
+        Long cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long countingGeneration = generation.get();
+        long count = countQuery.getAsLong();
+        synchronized (this) {
+            if (generation.get() == countingGeneration) {
+                cache.put(key, count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 쓰기 트랜잭션 안에서는 캐시를 보지 않는다. (이 트랜잭션이 바꾼 row가 반영되지 않은 카운트일 수 있다)
+     */
+    public Long getIfPresent(MemberSearchCondition condition) {
+        if (!isCommittedView()) {
+            return null;
+        }
+        return cache.getIfPresent(normalize(condition));
+    }
+
+    private static boolean isCommittedView() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+               || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    @EventListener
+    public synchronized void onMemberDataChanged(MemberDataChangedEvent event) {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    // 검색 조건이 동작하는 방식(hasText, null이면 무시)과 똑같이 맞춰서, 결과가 같은 조건은 같은 키가 되도록 한다.
+    static MemberSearchCondition normalize(MemberSearchCondition condition) {
+        return new MemberSearchCondition(
+                StringUtils.hasText(condition.getUsername()) ? condition.getUsername() : null,
+                StringUtils.hasText(condition.getTeamName()) ? condition.getTeamName() : null,
+                condition.getAgeGoe(),
+                condition.getAgeLoe());
+    }
+}
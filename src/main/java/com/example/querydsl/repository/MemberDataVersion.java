@@ -0,0 +1,49 @@
+package com.example.querydsl.repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.example.querydsl.entity.MemberDataChangedEvent;
+
+/**
+ * Member/Team 데이터 버전 - 바뀔 때마다(MemberDataChangedEvent) 1씩 올라간다.
+ * 조회 API의 ETag로 쓴다. 버전이 같으면 결과도 같으니 SQL 없이 304를 돌려줄 수 있다.
+ *
+ * 기동 시각(epoch)을 같이 넣어서 재기동하거나 다른 서버로 가면 태그가 달라지게 한다.
+ * 이벤트는 이 서버 안에서만 전파되니, 다른 서버에서 쓴 변경이나 엔티티 리스너를 안 타는 JPQL 벌크 연산은 모른다.
+ *
+ * replica 라우팅(spring.datasource.replica.url)이 켜져 있으면 ETag를 쓰지 않는다. (etag()가 null)
+ * 버전은 primary 커밋 시점에 오르는데 조회는 아직 따라오지 못한 replica에서 읽을 수 있어서,
+ * 옛날 결과에 새 버전 태그가 붙고 다음 쓰기 전까지 그 결과로 304를 돌려주게 된다.
+ */
+@Component
+public class MemberDataVersion {
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+    private final boolean enabled;
+
+    public MemberDataVersion(@Value("${spring.datasource.replica.url:}") String replicaUrl) {
+        this.enabled = !StringUtils.hasText(replicaUrl);
+    }
+
+    /**
+     * @return weak ETag, replica 라우팅 중이면 null (checkNotModified(null)은 항상 false)
+     */
+    public String etag() {
+        return enabled ? "W/\"" + Long.toString(epoch, 36) + "-" + version.get() + "\"" : null;
+    }
+
+    // 같은 URL이라도 응답 형식(Accept)이 다르면 태그도 달라야 한다.
+    public String etag(String representation) {
+        return enabled ? "W/\"" + Long.toString(epoch, 36) + "-" + version.get() + "-" + representation + "\"" : null;
+    }
+
+    @EventListener
+    public void onMemberDataChanged(MemberDataChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
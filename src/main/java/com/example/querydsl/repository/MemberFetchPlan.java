@@ -0,0 +1,58 @@
+package com.example.querydsl.repository;
+
+import static com.example.querydsl.entity.QTeam.team;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.PersistenceUnitUtil;
+
+import org.hibernate.Hibernate;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+/**
+ * Member 엔티티를 조회할 때 member.team(LAZY)을 어떻게 가져올지
+ * - LAZY : 그대로 프록시, 화면에서 team을 쓰면 1 + N
+ * - FETCH_JOIN : member.team 조인에 fetch join (to-one이라 row 수가 그대로라서 페이징해도 된다)
+ * - BATCH : member를 먼저 읽고 team은 id in (...) 쿼리 한 번으로 영속성 컨텍스트에 올린다.
+ */
+public enum MemberFetchPlan {
+    LAZY, FETCH_JOIN, BATCH;
+
+    private static final int BATCH_SIZE = 1000; // in 절 최대 개수
+
+    // leftJoin(member.team, team) 바로 뒤에 호출한다. (fetchJoin()은 마지막 조인에 붙는다)
+    <T> JPAQuery<T> applyTo(JPAQuery<T> teamJoinedQuery) {
+        return this == FETCH_JOIN ? teamJoinedQuery.fetchJoin() : teamJoinedQuery;
+    }
+
+    // 조회가 끝난 member들의 team 프록시를 채운다. (BATCH일 때만)
+    List<Member> loadTeams(JPAQueryFactory queryFactory, PersistenceUnitUtil persistenceUnitUtil, List<Member> members) {
+        if (this != BATCH) {
+            return members;
+        }
+
+        Set<Object> teamIds = new LinkedHashSet<>();
+        for (Member member : members) {
+            Team memberTeam = member.getTeam();
+            if (memberTeam != null && !Hibernate.isInitialized(memberTeam)) {
+                teamIds.add(persistenceUnitUtil.getIdentifier(memberTeam)); // 프록시를 초기화하지 않고 id만 꺼낸다.
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(teamIds.size());
+        teamIds.forEach(id -> ids.add((Long) id));
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            queryFactory.selectFrom(team)
+                        .where(team.id.in(ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()))))
+                        .fetch(); // 같은 영속성 컨텍스트에 올라가면 프록시는 SQL 없이 초기화된다.
+        }
+        return members;
+    }
+}
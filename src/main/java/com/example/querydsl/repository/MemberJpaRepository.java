@@ -6,10 +6,13 @@ import static org.springframework.util.StringUtils.hasText;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import javax.persistence.EntityManager;
 
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import com.example.querydsl.dto.MemberSearchCondition;
@@ -17,6 +20,8 @@ import com.example.querydsl.dto.MemberTeamDto;
 import com.example.querydsl.dto.QMemberTeamDto;
 import com.example.querydsl.entity.Member;
 import com.example.querydsl.entity.QTeam;
+import com.example.querydsl.repository.support.CoalesceConcurrentCalls;
+import com.mysema.commons.lang.CloseableIterator;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
@@ -27,8 +32,11 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 @Repository
 public class MemberJpaRepository {
+    private static final int STREAM_FETCH_SIZE = 500;
+
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchQueryTemplates searchQueryTemplates;
 
     public void save(Member member) {
         em.persist(member);
@@ -101,8 +109,20 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    @CoalesceConcurrentCalls // 같은 조건으로 동시에 들어온 검색은 한 번만 실행
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
+        return searchQueryTemplates.search(condition); // 조건 모양별로 캐시된 JPQL에 파라미터만 바인딩
+    }
+
+    /**
+     * search()와 같은 결과를 List로 모으지 않고 한 건씩 넘겨준다.
+     * forward-only 커서(ScrollableResults)로 fetch size만큼씩 읽기 때문에 결과 건수와 상관없이 메모리 사용량이 일정하다.
+     * 커서가 열려있는 동안 커넥션을 잡고 있어야 하므로 트랜잭션 안에서 실행한다.
+     */
+    @Transactional(readOnly = true)
+    public void searchForEach(MemberSearchCondition condition, Consumer<MemberTeamDto> action) {
+        try (CloseableIterator<MemberTeamDto> rows = queryFactory
                 .select(new QMemberTeamDto(
                         member.id,
                         member.username,
@@ -117,13 +137,21 @@ public class MemberJpaRepository {
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
-                .fetch();
+                .setHint(QueryHints.FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(QueryHints.READ_ONLY, true)
+                .iterate()) { // Hibernate에서는 scroll(ScrollMode.FORWARD_ONLY)로 동작한다.
+            rows.forEachRemaining(action);
+        }
     }
 
     public List<Member> searchMember(MemberSearchCondition condition) {
-        return queryFactory
+        return searchMember(condition, MemberFetchPlan.LAZY);
+    }
+
+    public List<Member> searchMember(MemberSearchCondition condition, MemberFetchPlan fetchPlan) {
+        List<Member> members = fetchPlan.applyTo(queryFactory
                 .selectFrom(member)
-                .leftJoin(member.team, team)
+                .leftJoin(member.team, team))
                 .where(
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
@@ -131,6 +159,7 @@ public class MemberJpaRepository {
                         ageLoe(condition.getAgeLoe())
                 )
                 .fetch();
+        return fetchPlan.loadTeams(queryFactory, em.getEntityManagerFactory().getPersistenceUnitUtil(), members);
     }
 
     private BooleanExpression ageBetween(int ageLoe, int ageGoe) {
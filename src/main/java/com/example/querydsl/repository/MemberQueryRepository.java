@@ -1,59 +1,22 @@
 package com.example.querydsl.repository;
 
-import static com.example.querydsl.entity.QMember.member;
-import static com.example.querydsl.entity.QTeam.team;
-
 import java.util.List;
 
 import org.springframework.stereotype.Repository;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.querydsl.dto.MemberSearchCondition;
 import com.example.querydsl.dto.MemberTeamDto;
-import com.example.querydsl.dto.QMemberTeamDto;
-import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.jpa.impl.JPAQueryFactory;
 
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
 @Repository // 별도용 조회용 레포지토리를 만드는 것도 나쁘지 않음, 너무 Impl에만 얽매이는 것도 좋은 설계는 아님!
 public class MemberQueryRepository {
-    private final JPAQueryFactory queryFactory;
+    private final MemberSearchQueryTemplates searchQueryTemplates;
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(final MemberSearchCondition condition) {
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
-    }
-
-    private BooleanExpression usernameEq(final String username) { //BooleanExpression으로 해야 나중에 Composition이 가능하다.
-        return StringUtils.hasText(username) ? member.username.eq(username) : null;
-    }
-
-    private BooleanExpression teamNameEq(final String teamName) {
-        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
-    }
-
-    private BooleanExpression ageGoe(final Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
-    }
-
-    private BooleanExpression ageLoe(final Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+        return searchQueryTemplates.search(condition); // 조건 모양별로 캐시된 JPQL에 파라미터만 바인딩
     }
 }
-
@@ -13,4 +13,6 @@ public interface MemberRepositoryCustom {
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageExtremeCountQuery(MemberSearchCondition condition, Pageable pageable);
+    Page<MemberTeamDto> searchPageApproximateCount(MemberSearchCondition condition, Pageable pageable);
+    long searchPageForEach(MemberSearchCondition condition, Pageable pageable, MemberTeamRowHandler handler);
 }
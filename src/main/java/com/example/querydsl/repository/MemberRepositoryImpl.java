@@ -1,22 +1,32 @@
 package com.example.querydsl.repository;
 
 import static com.example.querydsl.entity.QMember.member;
-import static com.example.querydsl.entity.QTeam.team;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import javax.persistence.EntityManager;
+
+import org.hibernate.annotations.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import com.example.querydsl.dto.MemberSearchCondition;
 import com.example.querydsl.dto.MemberTeamDto;
-import com.example.querydsl.dto.QMemberTeamDto;
 import com.example.querydsl.entity.Member;
+import com.example.querydsl.repository.support.ApproximatePage;
+import com.example.querydsl.repository.support.CoalesceConcurrentCalls;
+import com.example.querydsl.repository.support.ConcurrentQueryExecutor;
+import com.mysema.commons.lang.CloseableIterator;
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQuery;
@@ -25,12 +35,31 @@ import com.querydsl.jpa.impl.JPAQueryFactory;
 /**
  * MemberRepository + Impl (규칙이 존재합니다. `Impl`)
  */
+@Transactional(readOnly = true) // 조회 전용, replica가 설정되어 있으면 replica로 (ReadWriteRoutingDataSource)
 public class MemberRepositoryImpl extends QuerydslRepositorySupport implements MemberRepositoryCustom {
     private final JPAQueryFactory queryFactory;
+    private final MemberCountCache countCache;
+    private final MemberSearchQueryTemplates searchQueryTemplates;
+    private final TeamDictionary teamDictionary;
+    private final ConcurrentQueryExecutor concurrentQueryExecutor;
+    private final boolean concurrentCount;
+    private final long deferredJoinOffset;
+    private final long approximateCountThreshold;
 
-    public MemberRepositoryImpl() {
+    public MemberRepositoryImpl(EntityManager em, MemberCountCache countCache, MemberSearchQueryTemplates searchQueryTemplates,
+                                TeamDictionary teamDictionary, ConcurrentQueryExecutor concurrentQueryExecutor,
+                                @Value("${member.paging.concurrent-count.enabled:false}") boolean concurrentCount,
+                                @Value("${member.paging.deferred-join-offset:1000}") long deferredJoinOffset,
+                                @Value("${member.paging.approximate-count-threshold:1000}") long approximateCountThreshold) {
         super(Member.class);
-        queryFactory = new JPAQueryFactory(getEntityManager());
+        queryFactory = new JPAQueryFactory(em); // 생성자 시점에는 getEntityManager()가 아직 주입되지 않아서 null이다.
+        this.countCache = countCache;
+        this.searchQueryTemplates = searchQueryTemplates;
+        this.teamDictionary = teamDictionary;
+        this.concurrentQueryExecutor = concurrentQueryExecutor;
+        this.concurrentCount = concurrentCount;
+        this.deferredJoinOffset = deferredJoinOffset;
+        this.approximateCountThreshold = approximateCountThreshold;
     }
 
     @Override
@@ -52,38 +81,23 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
 //                                                          team.name))
 //                                                  .fetch();
 
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+        return searchQueryTemplates.search(condition); // 조건 모양별로 캐시된 JPQL에 파라미터만 바인딩
     }
 
     @Override
+    @CoalesceConcurrentCalls
     public Page<MemberTeamDto> searchPageSimple(final MemberSearchCondition condition, final Pageable pageable) {
-        QueryResults<MemberTeamDto> result = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name))
+        Long teamId = findTeamId(condition); // 검색마다 한 번만 (컨텐츠/카운트 쿼리가 같은 id를 쓰도록)
+        if (isUnknownTeam(condition, teamId)) {
+            return Page.empty(pageable);
+        }
+
+        QueryResults<Tuple> result = queryFactory
+                .select(member.id, member.username, member.age, member.team.id) // team 조인 대신 FK + TeamDictionary
                 .from(member)
-                .leftJoin(member.team, team)
                 .where(
                         usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
+                        teamIdEq(teamId),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
@@ -91,90 +105,141 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
                 .limit(pageable.getPageSize()) // 한 페이지에 몇개까지?
                 .fetchResults(); // 카운트 쿼리까지 가져옴
 
-        List<MemberTeamDto> content = result.getResults();
+        List<MemberTeamDto> content = toMemberTeamDtos(result.getResults());
         long total = result.getTotal();
 
         return new PageImpl<>(content, pageable, total);
     }
 
     public Page<MemberTeamDto> searchPageSimple2(final MemberSearchCondition condition, final Pageable pageable) {
-        JPQLQuery<MemberTeamDto> jpaQuery = from(member)
-                .leftJoin(member.team, team)
+        Long teamId = findTeamId(condition);
+        if (isUnknownTeam(condition, teamId)) {
+            return Page.empty(pageable);
+        }
+
+        JPQLQuery<Tuple> jpaQuery = from(member)
                 .where(
                         usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
+                        teamIdEq(teamId),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name));
+                .select(member.id, member.username, member.age, member.team.id);
 
-        JPQLQuery<MemberTeamDto> query = getQuerydsl().applyPagination(pageable, jpaQuery);
-        QueryResults<MemberTeamDto> results = query.fetchResults();
+        JPQLQuery<Tuple> query = getQuerydsl().applyPagination(pageable, jpaQuery);
+        QueryResults<Tuple> results = query.fetchResults();
 
-        return new PageImpl<>(results.getResults(), pageable, results.getTotal());
+        return new PageImpl<>(toMemberTeamDtos(results.getResults()), pageable, results.getTotal());
     }
 
     @Override
+    @CoalesceConcurrentCalls
     public Page<MemberTeamDto> searchPageComplex(final MemberSearchCondition condition, final Pageable pageable) {
-        List<MemberTeamDto> content = getContent(condition, pageable); // 카운트 쿼리 안가져옴(최적화를 위해)
-        long total = getTotal(condition);        // select와 카운트 쿼리 분리
+        Long teamId = findTeamId(condition);
+        if (isUnknownTeam(condition, teamId)) {
+            return Page.empty(pageable);
+        }
+
+        if (concurrentCount && countCache.getIfPresent(condition) == null && ConcurrentQueryExecutor.isApplicable()) {
+            // 캐시에 없는 카운트는 다른 커넥션에서 컨텐츠 쿼리와 동시에 실행
+            ConcurrentQueryExecutor.Task<Long> count = concurrentQueryExecutor.submit(factory -> getTotal(factory, condition, teamId));
+            List<MemberTeamDto> content = getContent(condition, teamId, pageable);
+            long total = countCache.get(condition, () -> count.join(queryFactory)); // 작업이 아직 시작 안 했으면 이 스레드에서 실행
+            count.cancel(); // 그 사이 다른 요청이 캐시를 채웠으면 필요 없다.
+            return new PageImpl<>(content, pageable, total);
+        }
+
+        List<MemberTeamDto> content = getContent(condition, teamId, pageable); // 카운트 쿼리 안가져옴(최적화를 위해)
+        long total = countCache.get(condition, () -> getTotal(queryFactory, condition, teamId)); // select와 카운트 쿼리 분리, 같은 조건이면 캐시된 카운트 사용
         return new PageImpl<>(content, pageable, total);
     }
 
-    private long getTotal(final MemberSearchCondition condition) {
+    private long getTotal(final JPAQueryFactory queryFactory, final MemberSearchCondition condition, final Long teamId) {
         long total = queryFactory
-                .select(member)
+                .select(member.id)
                 .from(member)
-                .leftJoin(member.team, team)
                 .where(
                         usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
+                        teamIdEq(teamId),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 ).fetchCount();
         return total;
     }
 
-    private List<MemberTeamDto> getContent(final MemberSearchCondition condition, final Pageable pageable) {
+    private List<MemberTeamDto> getContent(final MemberSearchCondition condition, final Long teamId, final Pageable pageable) {
+        if (pageable.getOffset() >= deferredJoinOffset) {
+            return getContentDeferred(condition, teamId, pageable);
+        }
+        return toMemberTeamDtos(contentQuery(condition, teamId, pageable).fetch());
+    }
+
+    private JPAQuery<Tuple> contentQuery(final MemberSearchCondition condition, final Long teamId, final Pageable pageable) {
         return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name))
+                .select(member.id, member.username, member.age, member.team.id)
                 .from(member)
-                .leftJoin(member.team, team)
                 .where(
                         usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
+                        teamIdEq(teamId),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
+                .orderBy(member.id.asc()) // deferred join 경로와 같은 순서
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize()) // 한 페이지에 몇개까지?
+                .limit(pageable.getPageSize()); // 한 페이지에 몇개까지?
+    }
+
+    /**
+     * deferred join (id 먼저 페이징)
+     * offset이 크면 DB는 건너뛸 row의 컬럼까지 다 읽었다가 버린다.
+     * 그래서 먼저 member.id만 페이징하고(인덱스만으로 처리 가능), 그 id들의 컬럼만 읽어서 DTO로 만든다.
+     */
+    private List<MemberTeamDto> getContentDeferred(final MemberSearchCondition condition, final Long teamId, final Pageable pageable) {
+        List<Long> ids = pageIds(condition, teamId, pageable);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return toMemberTeamDtos(contentQuery(ids).fetch());
+    }
+
+    private List<Long> pageIds(final MemberSearchCondition condition, final Long teamId, final Pageable pageable) {
+        return queryFactory
+                .select(member.id)
+                .from(member)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamIdEq(teamId),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .orderBy(member.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
                 .fetch();
     }
 
+    private JPAQuery<Tuple> contentQuery(final List<Long> ids) {
+        return queryFactory
+                .select(member.id, member.username, member.age, member.team.id)
+                .from(member)
+                .where(member.id.in(ids))
+                .orderBy(member.id.asc());
+    }
+
     // 극한의 카운트 쿼리
+    @CoalesceConcurrentCalls
     public Page<MemberTeamDto> searchPageExtremeCountQuery(final MemberSearchCondition condition, final Pageable pageable) {
-        List<MemberTeamDto> content = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name))
+        Long teamId = findTeamId(condition);
+        if (isUnknownTeam(condition, teamId)) {
+            return Page.empty(pageable);
+        }
+
+        List<Tuple> rows = queryFactory
+                .select(member.id, member.username, member.age, member.team.id)
                 .from(member)
-                .leftJoin(member.team, team)
                 .where(
                         usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
+                        teamIdEq(teamId),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
@@ -182,26 +247,138 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
                 .limit(pageable.getPageSize()) // 한 페이지에 몇개까지?
                 .fetch();
 
-        JPAQuery<Member> countQuery = queryFactory
-                .select(member)
+        JPAQuery<Long> countQuery = queryFactory
+                .select(member.id)
                 .from(member)
-                .leftJoin(member.team, team)
                 .where(
                         usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
+                        teamIdEq(teamId),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 );
 
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount); // 마지막 페이지에서는 카운트 쿼리를 날리지 않는다.
+        return PageableExecutionUtils.getPage(toMemberTeamDtos(rows), pageable, () -> countCache.get(condition, countQuery::fetchCount)); // 마지막 페이지에서는 카운트 쿼리를 날리지 않는다.
+    }
+
+    /**
+     * 카운트를 threshold 건까지만 센다.
+     * 정확한 카운트 대신 id를 threshold + 1건까지만 읽어서, 넘치면 totalElements = threshold(이상)로 근사한다. (화면에는 "1,000+ 건")
+     * 캐시에 정확한 카운트가 있으면 그대로 쓴다.
+     */
+    @Override
+    @CoalesceConcurrentCalls
+    public Page<MemberTeamDto> searchPageApproximateCount(final MemberSearchCondition condition, final Pageable pageable) {
+        Long teamId = findTeamId(condition);
+        if (isUnknownTeam(condition, teamId)) {
+            return Page.empty(pageable);
+        }
+
+        List<MemberTeamDto> content = getContent(condition, teamId, pageable);
+        Long cachedTotal = countCache.getIfPresent(condition);
+        if (cachedTotal != null) {
+            return new ApproximatePage<>(content, pageable, cachedTotal, false);
+        }
+        if (pageable.getOffset() == 0 && content.size() < pageable.getPageSize()) {
+            return new ApproximatePage<>(content, pageable, content.size(), false); // 첫 페이지에서 다 나왔으면 카운트 쿼리 필요 없음
+        }
+        if (!content.isEmpty() && content.size() < pageable.getPageSize()) {
+            return new ApproximatePage<>(content, pageable, pageable.getOffset() + content.size(), false); // 마지막 페이지 (PageableExecutionUtils와 같다)
+        }
+
+        long cappedCount = queryFactory
+                .select(member.id)
+                .from(member)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamIdEq(teamId),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .limit(approximateCountThreshold + 1)
+                .fetch()
+                .size();
+        if (cappedCount <= approximateCountThreshold) {
+            long total = countCache.get(condition, () -> cappedCount); // 정확한 값이니 캐시해도 된다.
+            return new ApproximatePage<>(content, pageable, total, false);
+        }
+
+        // 페이지가 꽉 찼으면 다음 페이지가 있을 수 있으니 한 건 더 있다고 본다. (threshold 이후 페이지가 isLast가 되지 않도록)
+        long seen = pageable.getOffset() + content.size();
+        long atLeast = Math.max(approximateCountThreshold, content.size() == pageable.getPageSize() ? seen + 1 : seen);
+        return new ApproximatePage<>(content, pageable, atLeast, true);
+    }
+
+    /**
+     * searchPageComplex()와 같은 페이지를 DTO, List, Page 없이 커서로 한 건씩 handler에 넘긴다. (응답을 JsonGenerator로 바로 쓰는 용도)
+     * 반환값은 totalElements, 마지막 페이지면 카운트 쿼리를 날리지 않고 그 외에는 카운트 캐시를 쓴다.
+     */
+    @Override
+    public long searchPageForEach(final MemberSearchCondition condition, final Pageable pageable, final MemberTeamRowHandler handler) {
+        Long teamId = findTeamId(condition);
+        if (isUnknownTeam(condition, teamId)) {
+            return 0;
+        }
+
+        JPAQuery<Tuple> query;
+        if (pageable.getOffset() >= deferredJoinOffset) {
+            List<Long> ids = pageIds(condition, teamId, pageable);
+            query = ids.isEmpty() ? null : contentQuery(ids);
+        } else {
+            query = contentQuery(condition, teamId, pageable);
+        }
+
+        int rows = 0;
+        if (query != null) {
+            try (CloseableIterator<Tuple> it = query.setHint(QueryHints.FETCH_SIZE, pageable.getPageSize())
+                                                    .setHint(QueryHints.READ_ONLY, true)
+                                                    .iterate()) {
+                while (it.hasNext()) {
+                    Tuple row = it.next();
+                    Long rowTeamId = row.get(member.team.id);
+                    handler.handle(row.get(member.id), row.get(member.username), row.get(member.age),
+                                   rowTeamId, teamDictionary.findName(rowTeamId));
+                    rows++;
+                }
+            }
+        }
+
+        // PageableExecutionUtils.getPage()와 같은 규칙
+        if (pageable.getOffset() == 0 && rows < pageable.getPageSize()) {
+            return rows;
+        }
+        if (rows != 0 && rows < pageable.getPageSize()) {
+            return pageable.getOffset() + rows;
+        }
+        return countCache.get(condition, () -> getTotal(queryFactory, condition, teamId));
+    }
+
+    // team 이름은 조인하지 않고 TeamDictionary에서 채운다.
+    private List<MemberTeamDto> toMemberTeamDtos(final List<Tuple> rows) {
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Long teamId = row.get(member.team.id);
+            result.add(new MemberTeamDto(row.get(member.id), row.get(member.username), row.get(member.age),
+                                         teamId, teamDictionary.findName(teamId)));
+        }
+        return result;
+    }
+
+    // 팀 조건이 없거나 없는 팀이면 null
+    private Long findTeamId(final MemberSearchCondition condition) {
+        return StringUtils.hasText(condition.getTeamName()) ? teamDictionary.findId(condition.getTeamName()) : null;
+    }
+
+    private static boolean isUnknownTeam(final MemberSearchCondition condition, final Long teamId) {
+        return StringUtils.hasText(condition.getTeamName()) && teamId == null;
     }
 
     private BooleanExpression usernameEq(final String username) { //BooleanExpression으로 해야 나중에 Composition이 가능하다.
         return StringUtils.hasText(username) ? member.username.eq(username) : null;
     }
 
-    private BooleanExpression teamNameEq(final String teamName) {
-        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    // team.name = ? 대신 member.team.id = ? (team 조인 없음), 없는 팀이면 isUnknownTeam()에서 먼저 걸러진다.
+    private BooleanExpression teamIdEq(final Long teamId) {
+        return teamId != null ? member.team.id.eq(teamId) : null;
     }
 
     private BooleanExpression ageGoe(final Integer ageGoe) {
@@ -0,0 +1,122 @@
+package com.example.querydsl.repository;
+
+import static com.example.querydsl.entity.QMember.member;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.dto.MemberTeamDto;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+
+/**
+ * MemberSearchCondition 검색 쿼리의 JPQL 캐시
+ *
+ * 검색 조건은 4개(username, teamName, ageGoe, ageLoe)가 있거나 없거나라서 쿼리 모양은 16가지뿐이다.
+ * 모양마다 값 대신 Param으로 Querydsl 쿼리를 한 번만 만들어서 JPQL로 직렬화해두고,
+ * 요청마다 파라미터만 바인딩한다. 같은 JPQL 문자열이니 Hibernate 쿼리 플랜 캐시도 그대로 탄다.
+ * team 조건/이름은 TeamDictionary로 처리해서 team 조인을 하지 않는다.
+ */
+@Component
+public class MemberSearchQueryTemplates {
+    private static final Param<String> USERNAME = new Param<>(String.class, "username");
+    private static final Param<Long> TEAM_ID = new Param<>(Long.class, "teamId");
+    private static final Param<Integer> AGE_GOE = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> AGE_LOE = new Param<>(Integer.class, "ageLoe");
+
+    private final EntityManager em;
+    private final TeamDictionary teamDictionary;
+    private final ConcurrentMap<Integer, Template> templatesByShape = new ConcurrentHashMap<>();
+
+    public MemberSearchQueryTemplates(EntityManager em, TeamDictionary teamDictionary) {
+        this.em = em;
+        this.teamDictionary = teamDictionary;
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        Map<ParamExpression<?>, Object> params = new HashMap<>();
+        if (StringUtils.hasText(condition.getUsername())) {
+            params.put(USERNAME, condition.getUsername());
+        }
+        if (StringUtils.hasText(condition.getTeamName())) {
+            Long teamId = teamDictionary.findId(condition.getTeamName());
+            if (teamId == null) {
+                return Collections.emptyList(); // 없는 팀
+            }
+            params.put(TEAM_ID, teamId);
+        }
+        if (condition.getAgeGoe() != null) {
+            params.put(AGE_GOE, condition.getAgeGoe());
+        }
+        if (condition.getAgeLoe() != null) {
+            params.put(AGE_LOE, condition.getAgeLoe());
+        }
+
+        Template template = templatesByShape.computeIfAbsent(shape(params), shape -> createTemplate(params));
+        Query query = em.createQuery(template.jpql);
+        JPAUtil.setConstants(query, template.constantToLabel, params);
+
+        List<?> rows = query.getResultList();
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            Long teamId = (Long) columns[3];
+            result.add(new MemberTeamDto((Long) columns[0], (String) columns[1], (Integer) columns[2],
+                                         teamId, teamDictionary.findName(teamId)));
+        }
+        return result;
+    }
+
+    private static int shape(Map<ParamExpression<?>, Object> params) {
+        return (params.containsKey(USERNAME) ? 1 : 0)
+               | (params.containsKey(TEAM_ID) ? 2 : 0)
+               | (params.containsKey(AGE_GOE) ? 4 : 0)
+               | (params.containsKey(AGE_LOE) ? 8 : 0);
+    }
+
+    private Template createTemplate(Map<ParamExpression<?>, Object> params) {
+        JPQLTemplates templates = JPAProvider.getTemplates(em);
+        JPAQuery<Tuple> query = new JPAQuery<>(em, templates)
+                .select(member.id, member.username, member.age, member.team.id) // team 조인 없이 FK만, 이름은 TeamDictionary
+                .from(member)
+                .where(
+                        params.containsKey(USERNAME) ? member.username.eq(USERNAME) : null,
+                        params.containsKey(TEAM_ID) ? member.team.id.eq(TEAM_ID) : null,
+                        params.containsKey(AGE_GOE) ? member.age.goe(AGE_GOE) : null,
+                        params.containsKey(AGE_LOE) ? member.age.loe(AGE_LOE) : null
+                );
+
+        JPQLSerializer serializer = new JPQLSerializer(templates, em);
+        serializer.serialize(query.getMetadata(), false, null);
+        return new Template(serializer.toString().trim(), new LinkedHashMap<>(serializer.getConstantToLabel()));
+    }
+
+    private static class Template {
+        private final String jpql;
+        private final Map<Object, String> constantToLabel;
+
+        Template(String jpql, Map<Object, String> constantToLabel) {
+            this.jpql = jpql;
+            this.constantToLabel = Collections.unmodifiableMap(constantToLabel);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.querydsl.repository;
+
+/**
+ * 조회 결과 한 건을 MemberTeamDto로 만들지 않고 컬럼 값 그대로 받는다.
+ * @see MemberRepositoryCustom#searchPageForEach
+ */
+@FunctionalInterface
+public interface MemberTeamRowHandler {
+    void handle(Long memberId, String username, Integer age, Long teamId, String teamName);
+}
@@ -4,6 +4,7 @@ import static com.example.querydsl.entity.QMember.member;
 import static com.example.querydsl.entity.QTeam.team;
 
 import java.util.List;
+import java.util.function.Function;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,10 +12,15 @@ import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
+import com.example.querydsl.dto.MemberKeysetSort;
 import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.dto.MemberTeamDto;
+import com.example.querydsl.dto.QMemberTeamDto;
 import com.example.querydsl.entity.Member;
 import com.example.querydsl.entity.QMember;
+import com.example.querydsl.repository.support.KeysetPage;
 import com.example.querydsl.repository.support.Querydsl4RepositorySupport;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 
@@ -36,17 +42,26 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
     }
 
     public Page<Member> searchPageByApplyPage(MemberSearchCondition condition, Pageable pageable) {
-        JPAQuery<Member> query = selectFrom(member)
-                .leftJoin(member.team, team)
+        return searchPageByApplyPage(condition, pageable, MemberFetchPlan.LAZY);
+    }
+
+    /**
+     * FETCH_JOIN이어도 카운트 쿼리는 컨텐츠 쿼리에서 만들기 때문에(countQueryOf) fetch join과 안 쓰는 team 조인이 빠진다.
+     */
+    public Page<Member> searchPageByApplyPage(MemberSearchCondition condition, Pageable pageable, MemberFetchPlan fetchPlan) {
+        JPAQuery<Member> query = fetchPlan.applyTo(selectFrom(member)
+                .leftJoin(member.team, team))
                 .where(usernameEq(condition.getUsername()),
                        teamNameEq(condition.getTeamName()),
                        ageGoe(condition.getAgeGoe()),
                        ageLoe(condition.getAgeLoe())
                 );
+        JPAQuery<?> countQuery = countQueryOf(query); // applyPagination이 쿼리에 order by/offset/limit을 붙이기 전에
 
         List<Member> content = getQuerydsl().applyPagination(pageable, query).fetch();
+        fetchPlan.loadTeams(getQueryFactory(), getEntityManager().getEntityManagerFactory().getPersistenceUnitUtil(), content);
 
-        return PageableExecutionUtils.getPage(content, pageable, query::fetchCount);
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
     }
 
     public Page<Member> applyPagination(MemberSearchCondition condition, Pageable pageable) {
@@ -61,24 +76,42 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
         );
     }
 
-    public Page<Member> applyPagination2(MemberSearchCondition condition, Pageable pageable) {
-        return applyPagination(pageable,
-                               contentQuery -> contentQuery
-                                       .selectFrom(member)
-                                       .leftJoin(member.team, team)
-                                       .where(usernameEq(condition.getUsername()),
-                                              teamNameEq(condition.getTeamName()),
-                                              ageGoe(condition.getAgeGoe()),
-                                              ageLoe(condition.getAgeLoe())
-                                       ),
-                               countQuery -> countQuery
-                                       .select(member.id)
-                                       .from(member)
-                                       .leftJoin(member.team, team)
-                                       .where(usernameEq(condition.getUsername()),
-                                              teamNameEq(condition.getTeamName()),
-                                              ageGoe(condition.getAgeGoe()),
-                                              ageLoe(condition.getAgeLoe()))
+    /**
+     * applyPagination()과 같은 조회, 카운트 쿼리(컨텐츠 쿼리에서 만든 것)만 다른 스레드에서 동시에 실행한다.
+     */
+    public Page<Member> applyPaginationConcurrently(MemberSearchCondition condition, Pageable pageable) {
+        return applyPaginationConcurrently(pageable, query -> query
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(usernameEq(condition.getUsername()),
+                       teamNameEq(condition.getTeamName()),
+                       ageGoe(condition.getAgeGoe()),
+                       ageLoe(condition.getAgeLoe())
+                )
+        );
+    }
+
+    public KeysetPage<MemberTeamDto> searchKeyset(MemberSearchCondition condition, MemberKeysetSort sort, String cursor, int size) {
+        List<OrderSpecifier<?>> keys = sort == MemberKeysetSort.AGE
+                                       ? List.of(member.age.asc(), member.id.asc())
+                                       : List.of(member.id.asc());
+        Function<MemberTeamDto, List<?>> keyExtractor = sort == MemberKeysetSort.AGE
+                                                        ? dto -> List.of(dto.getAge(), dto.getMemberId())
+                                                        : dto -> List.of(dto.getMemberId());
+
+        return applyKeysetPagination(cursor, size, keys, keyExtractor, query -> query
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(usernameEq(condition.getUsername()),
+                       teamNameEq(condition.getTeamName()),
+                       ageGoe(condition.getAgeGoe()),
+                       ageLoe(condition.getAgeLoe()))
         );
     }
 
@@ -0,0 +1,177 @@
+package com.example.querydsl.repository;
+
+import static com.example.querydsl.entity.QTeam.team;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.querydsl.entity.MemberDataChangeListener;
+import com.example.querydsl.entity.MemberDataChangedEvent;
+import com.example.querydsl.entity.Team;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+/**
+ * team 이름 <-> id 사전
+ * 팀은 수백 개 정도라 통째로 메모리에 올려두고, 검색할 때 team 조인 대신 member.team.id 조건과 이 사전을 쓴다.
+ *
+ * TTL이 지나거나 Team이 바뀌면(MemberDataChangedEvent) 다시 읽는다.
+ * 사전에 없는 이름/id는 DB에 한 번 더 물어본다. (다른 서버에서 방금 추가된 팀일 수 있으니까)
+ * 쓰기 트랜잭션 안에서 읽은 사전은 커밋 안 된 팀이 섞여 있을 수 있어서 공유하지 않고, 그 트랜잭션에만 묶어둔다. (행마다 다시 읽지 않도록)
+ * 그 트랜잭션에서 Team이 바뀌면(MemberDataChangeListener.changeCount) 다시 읽는다.
+ * 팀 이름은 유일하다고 가정한다.
+ */
+@Component
+public class TeamDictionary {
+    private static final String TRANSACTION_SNAPSHOT_KEY = TeamDictionary.class.getName() + ".TRANSACTION_SNAPSHOT";
+
+    private final JPAQueryFactory queryFactory;
+    private final TeamRepository teamRepository;
+    private final long ttlNanos;
+
+    private final AtomicLong generation = new AtomicLong(); // 읽는 도중에 무효화되면 다 읽은 사전을 버리기 위해
+    private volatile Snapshot snapshot;
+
+    public TeamDictionary(JPAQueryFactory queryFactory, TeamRepository teamRepository,
+                          @Value("${member.team-dictionary.ttl:5m}") Duration ttl) {
+        this.queryFactory = queryFactory;
+        this.teamRepository = teamRepository;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * @return 팀 id, 그런 이름의 팀이 없으면 null
+     */
+    public Long findId(String teamName) {
+        Long teamId = snapshot().idsByName.get(teamName);
+        if (teamId != null) {
+            return teamId;
+        }
+        return teamRepository.findByName(teamName).map(Team::getId).orElse(null); // 쿼리 캐시
+    }
+
+    public String findName(Long teamId) {
+        if (teamId == null) {
+            return null;
+        }
+        String teamName = snapshot().namesById.get(teamId);
+        if (teamName != null) {
+            return teamName;
+        }
+        return teamRepository.findById(teamId).map(Team::getName).orElse(null); // 2차 캐시
+    }
+
+    @EventListener
+    public void onMemberDataChanged(MemberDataChangedEvent event) {
+        if (!Team.class.isAssignableFrom(event.getEntityType())) {
+            return; // Member 변경은 락 없이 넘긴다.
+        }
+        synchronized (this) {
+            generation.incrementAndGet();
+            snapshot = null;
+        }
+    }
+
+    private Snapshot snapshot() {
+        boolean committedView = !TransactionSynchronizationManager.isActualTransactionActive()
+                                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (!committedView) {
+            return transactionSnapshot();
+        }
+
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired(ttlNanos)) {
+            return current;
+        }
+
+        long loadingGeneration = generation.get();
+        Snapshot loaded = load();
+        synchronized (this) {
+            if (generation.get() == loadingGeneration) {
+                snapshot = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    // 쓰기 트랜잭션 : 트랜잭션이 끝날 때까지만 쓰는 사전 (그 트랜잭션에서 Team이 바뀌면 다시 읽는다)
+    private Snapshot transactionSnapshot() {
+        TransactionSnapshot current = (TransactionSnapshot) TransactionSynchronizationManager.getResource(TRANSACTION_SNAPSHOT_KEY);
+        if (current != null && current.teamChanges == MemberDataChangeListener.changeCount(Team.class)) {
+            return current.snapshot;
+        }
+
+        Snapshot loaded = load(); // team 조회 전에 auto flush되니 변경 횟수는 읽은 뒤에 본다.
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return loaded;
+        }
+        TransactionSnapshot bound = new TransactionSnapshot(loaded, MemberDataChangeListener.changeCount(Team.class));
+        if (current != null) {
+            TransactionSynchronizationManager.unbindResource(TRANSACTION_SNAPSHOT_KEY);
+            TransactionSynchronizationManager.bindResource(TRANSACTION_SNAPSHOT_KEY, bound);
+            return loaded;
+        }
+        TransactionSynchronizationManager.bindResource(TRANSACTION_SNAPSHOT_KEY, bound);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SNAPSHOT_KEY);
+            }
+        });
+        return loaded;
+    }
+
+    private Snapshot load() {
+        List<Tuple> teams = queryFactory
+                .select(team.id, team.name)
+                .from(team)
+                .fetch();
+
+        Map<String, Long> idsByName = new HashMap<>();
+        Map<Long, String> namesById = new HashMap<>();
+        for (Tuple row : teams) {
+            Long teamId = row.get(team.id);
+            String teamName = row.get(team.name);
+            namesById.put(teamId, teamName);
+            if (teamName != null) {
+                idsByName.put(teamName, teamId);
+            }
+        }
+        return new Snapshot(idsByName, namesById);
+    }
+
+    private static class Snapshot {
+        private final Map<String, Long> idsByName;
+        private final Map<Long, String> namesById;
+        private final long loadedAt = System.nanoTime();
+
+        Snapshot(Map<String, Long> idsByName, Map<Long, String> namesById) {
+            this.idsByName = Collections.unmodifiableMap(idsByName);
+            this.namesById = Collections.unmodifiableMap(namesById);
+        }
+
+        boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - loadedAt > ttlNanos;
+        }
+    }
+
+    private static class TransactionSnapshot {
+        private final Snapshot snapshot;
+        private final long teamChanges;
+
+        TransactionSnapshot(Snapshot snapshot, long teamChanges) {
+            this.snapshot = snapshot;
+            this.teamChanges = teamChanges;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.querydsl.repository;
+
+import java.util.Optional;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import com.example.querydsl.entity.Team;
+
+public interface TeamRepository extends JpaRepository<Team, Long> {
+    // 쿼리 캐시 : team 테이블이 바뀌면 Hibernate가 알아서 무효화한다. 결과 Team은 2차 캐시(team 리전)에서 읽는다.
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "team-by-name")
+    })
+    Optional<Team> findByName(String name);
+}
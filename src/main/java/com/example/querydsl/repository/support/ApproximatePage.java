@@ -0,0 +1,23 @@
+package com.example.querydsl.repository.support;
+
+import java.util.List;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * totalElements가 정확한 값이 아닐 수 있는 페이지
+ * totalApproximate가 true면 totalElements는 "최소 이만큼 있다"는 뜻이다. (ex. 1,000+ 건)
+ */
+public class ApproximatePage<T> extends PageImpl<T> {
+    private final boolean totalApproximate;
+
+    public ApproximatePage(List<T> content, Pageable pageable, long total, boolean totalApproximate) {
+        super(content, pageable, total);
+        this.totalApproximate = totalApproximate;
+    }
+
+    public boolean isTotalApproximate() {
+        return totalApproximate;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.querydsl.repository.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 같은 메서드를 같은 인자(equals)로 동시에 호출하면 DB에는 한 번만 가고 결과를 나눠 갖는다. (SingleFlightAspect)
+ * 쓰기 트랜잭션 안에서 호출하면 그 트랜잭션만 보이는 데이터가 있을 수 있으니 그냥 실행한다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CoalesceConcurrentCalls {
+}
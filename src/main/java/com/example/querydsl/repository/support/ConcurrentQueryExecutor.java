@@ -0,0 +1,126 @@
+package com.example.querydsl.repository.support;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+/**
+ * 페이징 카운트 쿼리처럼 본 쿼리와 독립적인 쿼리를 다른 스레드에서 동시에 실행한다.
+ * 작업마다 읽기 전용 트랜잭션(= 별도의 EntityManager, 커넥션)을 열고 닫는다.
+ * 읽기 전용이라 replica 라우팅이 켜져 있으면 컨텐츠 쿼리와 같은 replica로 간다. (ReadWriteRoutingDataSource)
+ *
+ * 커넥션 : 요청 하나가 커넥션을 2개 쓴다. (호출한 쪽 트랜잭션/OSIV의 커넥션 + 카운트 작업의 커넥션)
+ * 호출한 스레드들이 풀을 다 잡고 있으면 카운트 작업은 커넥션을 못 얻고 Hikari 타임아웃까지 기다린다.
+ * 그래서 maximum-pool-size >= 동시에 페이징하는 요청 스레드 수 + threads 로 잡고, threads는 풀 크기보다 작아야 한다.
+ *
+ * 그래도 밀리는 경우를 위해, 아직 스레드를 못 잡은(큐에 있거나 거절된) 작업은 Task.join()에서 호출한 스레드가 가져가서
+ * 자기 세션(이미 잡고 있는 커넥션)으로 순서대로 실행한다. 새 커넥션을 기다리는 일은 이미 시작된 작업에만 생긴다.
+ */
+@Component
+public class ConcurrentQueryExecutor {
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ThreadPoolExecutor executor;
+
+    public ConcurrentQueryExecutor(EntityManager em, PlatformTransactionManager transactionManager,
+                                   @Value("${member.paging.concurrent-count.threads:4}") int threads,
+                                   @Value("${member.paging.concurrent-count.queue-capacity:100}") int queueCapacity) {
+        this.queryFactory = new JPAQueryFactory(em); // 공유 EntityManager, 트랜잭션마다 실제 EntityManager가 바인딩된다.
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                                               new ArrayBlockingQueue<>(queueCapacity),
+                                               new CustomizableThreadFactory("concurrent-query-"),
+                                               new ThreadPoolExecutor.DiscardPolicy()); // 거절된 작업은 Task.join()에서 호출한 스레드가 실행
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public <R> Task<R> submit(Function<JPAQueryFactory, R> query) {
+        Task<R> task = new Task<>(query);
+        executor.execute(() -> {
+            if (task.claim()) {
+                try {
+                    task.future.complete(readOnlyTransaction.execute(status -> query.apply(queryFactory)));
+                } catch (Throwable e) {
+                    task.future.completeExceptionally(e);
+                }
+            }
+        });
+        return task;
+    }
+
+    /**
+     * 제출한 쿼리, 작업 스레드와 호출한 스레드 중 먼저 가져간 쪽이 실행한다.
+     */
+    public static final class Task<R> {
+        private final Function<JPAQueryFactory, R> query;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+
+        private Task(Function<JPAQueryFactory, R> query) {
+            this.query = query;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        /**
+         * 아직 시작 안 했으면 호출한 쪽의 queryFactory(= 호출한 쪽 커넥션)로 바로 실행하고, 시작했으면 결과를 기다린다.
+         */
+        public R join(JPAQueryFactory callerQueryFactory) {
+            if (claim()) {
+                return query.apply(callerQueryFactory);
+            }
+            return ConcurrentQueryExecutor.join(future);
+        }
+
+        // 결과가 필요 없어졌을 때, 아직 시작 안 했으면 실행하지 않는다.
+        public void cancel() {
+            claim();
+        }
+    }
+
+    /**
+     * 쓰기 트랜잭션 안에서는 다른 커넥션이 아직 커밋 안 된 변경을 못 보니까 동시 실행하면 안 된다.
+     */
+    public static boolean isApplicable() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+               || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    // CompletionException으로 한 번 감싸진 원래 예외를 그대로 던진다.
+    public static <R> R join(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
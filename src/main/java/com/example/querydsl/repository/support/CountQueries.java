@@ -0,0 +1,199 @@
+package com.example.querydsl.repository.support;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.Metamodel;
+
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinFlag;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.PathType;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.jpa.JPAQueryMixin;
+
+/**
+ * 컨텐츠 쿼리에서 카운트 쿼리 만들기
+ * - select, order by, offset/limit 제거
+ * - fetch join 플래그 제거 (카운트 쿼리에 fetch join이 있으면 Hibernate가 예외를 던진다)
+ * - where/다른 조인에서 쓰지 않는 to-one left join 제거 (left join to-one은 row 수를 바꾸지 않는다)
+ *
+ * group by/having/distinct가 있으면 조인은 그대로 둔다.
+ * distinct면 select도 그대로 둔다. (count(distinct member.username)) 여러 컬럼 distinct는 카운트로 만들 수 없어서 null
+ */
+final class CountQueries {
+
+    private CountQueries() {
+    }
+
+    /**
+     * @return 카운트 쿼리 메타데이터, 만들 수 없으면 null (원래 쿼리의 fetchCount()를 쓴다)
+     */
+    static QueryMetadata derive(QueryMetadata source, Metamodel metamodel) {
+        if (source.isDistinct() && source.getProjection() instanceof FactoryExpression) {
+            return null; // select distinct a, b -> count(distinct a, b)는 JPQL에서 안 된다.
+        }
+
+        boolean eliminateJoins = source.getGroupBy().isEmpty() && source.getHaving() == null && !source.isDistinct();
+        Set<Path<?>> referenced = eliminateJoins ? referencedRoots(source) : null;
+
+        QueryMetadata count = new DefaultQueryMetadata();
+        count.setValidate(false);
+        count.setDistinct(source.isDistinct());
+        if (source.isDistinct()) {
+            count.setProjection(source.getProjection()); // 없애면 count(distinct member)가 되어 row 수를 센다.
+        }
+        for (JoinExpression join : source.getJoins()) {
+            if (eliminateJoins && isRemovable(join, referenced, metamodel)) {
+                continue;
+            }
+            count.addJoin(join.getType(), join.getTarget());
+            if (join.getCondition() != null) {
+                count.addJoinCondition(join.getCondition());
+            }
+            for (JoinFlag flag : join.getFlags()) {
+                if (!flag.equals(JPAQueryMixin.FETCH) && !flag.equals(JPAQueryMixin.FETCH_ALL_PROPERTIES)) {
+                    count.addJoinFlag(flag);
+                }
+            }
+        }
+        if (source.getWhere() != null) {
+            count.addWhere(source.getWhere());
+        }
+        source.getGroupBy().forEach(count::addGroupBy);
+        if (source.getHaving() != null) {
+            count.addHaving(source.getHaving());
+        }
+        for (Map.Entry<ParamExpression<?>, Object> param : source.getParams().entrySet()) {
+            setParam(count, param.getKey(), param.getValue());
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void setParam(QueryMetadata metadata, ParamExpression<T> param, Object value) {
+        metadata.setParam(param, (T) value);
+    }
+
+    // leftJoin(member.team, team) 처럼 별칭이 있는 to-one left join 이면서, 별칭(team)을 아무 데서도 쓰지 않으면 제거
+    private static boolean isRemovable(JoinExpression join, Set<Path<?>> referenced, Metamodel metamodel) {
+        if (join.getType() != JoinType.LEFTJOIN || join.getCondition() != null || !(join.getTarget() instanceof Operation)) {
+            return false;
+        }
+        Operation<?> target = (Operation<?>) join.getTarget();
+        if (target.getOperator() != Ops.ALIAS
+            || !(target.getArg(0) instanceof Path)
+            || !(target.getArg(1) instanceof Path)) {
+            return false;
+        }
+        return !referenced.contains(target.getArg(1)) && isToOne((Path<?>) target.getArg(0), metamodel);
+    }
+
+    private static boolean isToOne(Path<?> association, Metamodel metamodel) {
+        Path<?> parent = association.getMetadata().getParent();
+        if (parent == null || association.getMetadata().getPathType() != PathType.PROPERTY) {
+            return false;
+        }
+        try {
+            ManagedType<?> owner = metamodel.managedType(parent.getType());
+            Attribute.PersistentAttributeType type = owner.getAttribute(association.getMetadata().getName())
+                                                          .getPersistentAttributeType();
+            return type == Attribute.PersistentAttributeType.MANY_TO_ONE
+                   || type == Attribute.PersistentAttributeType.ONE_TO_ONE;
+        } catch (IllegalArgumentException e) {
+            return false; // 엔티티가 아니거나 그런 속성이 없음 -> 건드리지 않는다.
+        }
+    }
+
+    // where, having, group by, 조인 대상/조건에서 쓰는 경로의 루트(별칭)들
+    private static Set<Path<?>> referencedRoots(QueryMetadata metadata) {
+        Set<Path<?>> roots = new HashSet<>();
+        RootCollector collector = new RootCollector();
+        if (metadata.getWhere() != null) {
+            metadata.getWhere().accept(collector, roots);
+        }
+        for (JoinExpression join : metadata.getJoins()) {
+            if (join.getCondition() != null) {
+                join.getCondition().accept(collector, roots);
+            }
+            Expression<?> target = join.getTarget();
+            if (target instanceof Operation && ((Operation<?>) target).getOperator() == Ops.ALIAS) {
+                ((Operation<?>) target).getArg(0).accept(collector, roots); // 조인 경로의 출발점만 (별칭은 제외)
+            }
+        }
+        return roots;
+    }
+
+    private static class RootCollector implements Visitor<Void, Set<Path<?>>> {
+
+        @Override
+        public Void visit(Constant<?> expr, Set<Path<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(FactoryExpression<?> expr, Set<Path<?>> roots) {
+            expr.getArgs().forEach(arg -> arg.accept(this, roots));
+            return null;
+        }
+
+        @Override
+        public Void visit(Operation<?> expr, Set<Path<?>> roots) {
+            expr.getArgs().forEach(arg -> arg.accept(this, roots));
+            return null;
+        }
+
+        @Override
+        public Void visit(ParamExpression<?> expr, Set<Path<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(Path<?> expr, Set<Path<?>> roots) {
+            roots.add(expr.getRoot());
+            return null;
+        }
+
+        @Override
+        public Void visit(SubQueryExpression<?> expr, Set<Path<?>> roots) {
+            QueryMetadata metadata = expr.getMetadata();
+            if (metadata.getWhere() != null) {
+                metadata.getWhere().accept(this, roots);
+            }
+            if (metadata.getProjection() != null) {
+                metadata.getProjection().accept(this, roots);
+            }
+            for (JoinExpression join : metadata.getJoins()) {
+                join.getTarget().accept(this, roots);
+                if (join.getCondition() != null) {
+                    join.getCondition().accept(this, roots);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(TemplateExpression<?> expr, Set<Path<?>> roots) {
+            expr.getArgs().forEach(arg -> {
+                if (arg instanceof Expression) {
+                    ((Expression<?>) arg).accept(this, roots);
+                }
+            });
+            return null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.querydsl.repository.support;
+
+/**
+ * 클라이언트가 넘긴 keyset 커서를 해석할 수 없을 때 (깨졌거나, 조작됐거나, 다른 정렬의 커서)
+ */
+public class InvalidKeysetCursorException extends IllegalArgumentException {
+
+    public InvalidKeysetCursorException(String cursor) {
+        super("Invalid cursor: " + cursor);
+    }
+
+    public InvalidKeysetCursorException(String cursor, Throwable cause) {
+        super("Invalid cursor: " + cursor, cause);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.querydsl.repository.support;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+/**
+ * 마지막 row의 정렬 키 값들을 클라이언트가 해석하지 않는(opaque) 문자열로 변환한다.
+ */
+public final class KeysetCursor {
+    private static final String DELIMITER = ",";
+    private static final ConversionService conversionService = DefaultConversionService.getSharedInstance();
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(List<?> values) {
+        String joined = values.stream()
+                              .map(value -> URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8))
+                              .collect(Collectors.joining(DELIMITER));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws InvalidKeysetCursorException 커서가 깨졌거나 정렬 키와 맞지 않을 때
+     */
+    public static List<Object> decode(String cursor, List<Class<?>> types) {
+        String joined;
+        try {
+            joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidKeysetCursorException(cursor, e);
+        }
+
+        String[] tokens = joined.split(DELIMITER, -1);
+        if (tokens.length != types.size()) {
+            throw new InvalidKeysetCursorException(cursor);
+        }
+
+        List<Object> values = new ArrayList<>(tokens.length);
+        for (int i = 0; i < tokens.length; i++) {
+            Object value;
+            try {
+                value = conversionService.convert(URLDecoder.decode(tokens[i], StandardCharsets.UTF_8), types.get(i));
+            } catch (IllegalArgumentException | ConversionException e) {
+                throw new InvalidKeysetCursorException(cursor, e);
+            }
+            if (value == null) {
+                throw new InvalidKeysetCursorException(cursor); // 빈 값 (정렬 키는 null이 아니다)
+            }
+            values.add(value);
+        }
+        return values;
+    }
+}
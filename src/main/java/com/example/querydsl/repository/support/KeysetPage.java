@@ -0,0 +1,26 @@
+package com.example.querydsl.repository.support;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * offset 대신 keyset(seek) 방식으로 조회한 한 페이지
+ * nextCursor를 다음 요청의 cursor로 그대로 넘기면 된다. (마지막 페이지면 null)
+ */
+@Getter
+public class KeysetPage<T> {
+    private final List<T> content;
+    private final int size;
+    private final String nextCursor;
+
+    public KeysetPage(List<T> content, int size, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.querydsl.repository.support;
 
 import java.util.List;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
@@ -17,9 +18,16 @@ import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
 
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.QueryMetadata;
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.impl.JPAProvider;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 
@@ -29,6 +37,7 @@ public abstract class Querydsl4RepositorySupport {
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private ConcurrentQueryExecutor concurrentQueryExecutor;
 
     public Querydsl4RepositorySupport(Class<?> domainClass) {
         Assert.notNull(domainClass, "Domain class must not be null!");
@@ -48,6 +57,11 @@ public abstract class Querydsl4RepositorySupport {
         this.queryFactory = new JPAQueryFactory(entityManager);
     }
 
+    @Autowired(required = false)
+    public void setConcurrentQueryExecutor(ConcurrentQueryExecutor concurrentQueryExecutor) {
+        this.concurrentQueryExecutor = concurrentQueryExecutor;
+    }
+
     @PostConstruct
     public void validate() {
         Assert.notNull(entityManager, "EntityManager must not be null!");
@@ -75,10 +89,22 @@ public abstract class Querydsl4RepositorySupport {
         return getQueryFactory().selectFrom(from);
     }
 
+    /**
+     * 카운트 쿼리는 컨텐츠 쿼리에서 만든다. (select/order by/fetch join 제거, 안 쓰는 to-one left join 제거 - CountQueries)
+     */
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        JPAQuery<?> countQuery = countQueryOf(jpaQuery); // applyPagination이 쿼리에 order by/offset/limit을 붙이기 전에
         List<T> content = getQuerydsl().applyPagination(pageable, jpaQuery).fetch();
-        return PageableExecutionUtils.getPage(content, pageable, jpaQuery::fetchCount);
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
+    }
+
+    protected JPAQuery<?> countQueryOf(JPAQuery<?> contentQuery) {
+        QueryMetadata countMetadata = CountQueries.derive(contentQuery.getMetadata(), getEntityManager().getMetamodel());
+        if (countMetadata == null) {
+            return contentQuery.clone(); // 여러 컬럼 distinct 등, Querydsl 기본 카운트
+        }
+        return new JPAQuery<>(getEntityManager(), JPAProvider.getTemplates(getEntityManager()), countMetadata);
     }
 
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory, JPAQuery> countQuery) {
@@ -87,4 +113,87 @@ public abstract class Querydsl4RepositorySupport {
         JPAQuery countResult = countQuery.apply(getQueryFactory());
         return PageableExecutionUtils.getPage(content, pageable, countResult::fetchCount);
     }
-}
\ No newline at end of file
+
+    /**
+     * 카운트 쿼리를 다른 스레드/커넥션에서 컨텐츠 쿼리와 동시에 실행한다. (페이지 응답 시간 = 둘의 합 -> 둘 중 긴 쪽)
+     * 쓰기 트랜잭션 안이거나 실행기가 없으면 순서대로 실행한다.
+     * 카운트가 필요 없는 경우(첫 페이지에서 content가 pageSize보다 적은 경우 등)에도 이미 시작된 카운트 쿼리는 끝까지 실행된다.
+     * 작업 스레드가 밀려서 아직 시작 안 했으면 이 스레드에서 순서대로 실행한다. (ConcurrentQueryExecutor.Task)
+     */
+    protected <T> Page<T> applyPaginationConcurrently(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory, JPAQuery> countQuery) {
+        if (concurrentQueryExecutor == null || !ConcurrentQueryExecutor.isApplicable()) {
+            return applyPagination(pageable, contentQuery, countQuery);
+        }
+
+        ConcurrentQueryExecutor.Task<Long> total = concurrentQueryExecutor.submit(factory -> countQuery.apply(factory).fetchCount());
+        JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+        List<T> content = getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch();
+        Page<T> page = PageableExecutionUtils.getPage(content, pageable, () -> total.join(getQueryFactory()));
+        total.cancel(); // 카운트가 필요 없었으면 아직 시작 안 한 작업은 버린다.
+        return page;
+    }
+
+    /**
+     * applyPaginationConcurrently()와 같은데, 카운트 쿼리는 applyPagination(pageable, contentQuery)처럼 컨텐츠 쿼리에서 만든다.
+     * 카운트 쿼리는 공유 EntityManager로 만들어서 실행하는 스레드의 트랜잭션(EntityManager)에서 돈다.
+     */
+    protected <T> Page<T> applyPaginationConcurrently(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+        JPAQuery<?> countQuery = countQueryOf(jpaContentQuery); // applyPagination이 쿼리에 order by/offset/limit을 붙이기 전에
+        if (concurrentQueryExecutor == null || !ConcurrentQueryExecutor.isApplicable()) {
+            List<T> content = getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch();
+            return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
+        }
+
+        ConcurrentQueryExecutor.Task<Long> total = concurrentQueryExecutor.submit(factory -> countQuery.fetchCount());
+        List<T> content = getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch();
+        Page<T> page = PageableExecutionUtils.getPage(content, pageable, () -> total.join(getQueryFactory()));
+        total.cancel();
+        return page;
+    }
+
+    /**
+     * keyset(seek) 페이징
+     * offset으로 앞의 row를 읽고 버리는 대신, 직전 페이지 마지막 row의 정렬 키 다음부터 읽는다.
+     * 그래서 몇 번째 페이지든 조회 비용이 일정하다. (정렬 키 마지막은 반드시 id처럼 유일한 값이어야 한다.)
+     */
+    protected <T> KeysetPage<T> applyKeysetPagination(String cursor, int size, List<OrderSpecifier<?>> keys,
+                                                      Function<T, List<?>> keyExtractor,
+                                                      Function<JPAQueryFactory, JPAQuery<T>> contentQuery) {
+        Assert.isTrue(size > 0, "Page size must be greater than zero!");
+        Assert.notEmpty(keys, "Keyset keys must not be empty!");
+
+        JPAQuery<T> jpaQuery = contentQuery.apply(getQueryFactory());
+        if (cursor != null) {
+            List<Class<?>> keyTypes = keys.stream()
+                                          .<Class<?>>map(key -> key.getTarget().getType())
+                                          .collect(Collectors.toList());
+            jpaQuery.where(seekPredicate(keys, KeysetCursor.decode(cursor, keyTypes)));
+        }
+
+        List<T> rows = jpaQuery.orderBy(keys.toArray(new OrderSpecifier[0]))
+                               .limit(size + 1) // 한 건 더 읽어서 다음 페이지 유무를 판단 (카운트 쿼리 X)
+                               .fetch();
+
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? KeysetCursor.encode(keyExtractor.apply(content.get(content.size() - 1))) : null;
+        return new KeysetPage<>(content, size, nextCursor);
+    }
+
+    // (k1 > v1) or (k1 = v1 and k2 > v2) or ... (desc 정렬이면 <)
+    private static Predicate seekPredicate(List<OrderSpecifier<?>> keys, List<Object> values) {
+        BooleanBuilder seek = new BooleanBuilder();
+        BooleanBuilder equalPrefix = new BooleanBuilder();
+        for (int i = 0; i < keys.size(); i++) {
+            OrderSpecifier<?> key = keys.get(i);
+            Expression<Object> value = Expressions.constant(values.get(i));
+            Ops comparison = key.isAscending() ? Ops.GT : Ops.LT;
+
+            seek.or(new BooleanBuilder().and(equalPrefix.getValue())
+                                        .and(Expressions.booleanOperation(comparison, key.getTarget(), value)));
+            equalPrefix.and(Expressions.booleanOperation(Ops.EQ, key.getTarget(), value));
+        }
+        return seek;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.querydsl.repository.support;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link CoalesceConcurrentCalls} 처리
+ * 트랜잭션(@Transactional) 바깥에서 합친다. 안쪽에서 합치면 기다리는 호출들도 커넥션을 하나씩 잡고 있게 된다.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SingleFlightAspect {
+    private final SingleFlight<CallKey, Object> singleFlight = new SingleFlight<>();
+
+    @Around("@annotation(com.example.querydsl.repository.support.CoalesceConcurrentCalls)")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+            && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return joinPoint.proceed();
+        }
+
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        CallKey key = new CallKey(method, Arrays.asList(joinPoint.getArgs()));
+        try {
+            return singleFlight.execute(key, () -> {
+                try {
+                    return joinPoint.proceed();
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new CheckedCallException(e);
+                }
+            });
+        } catch (CheckedCallException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class CallKey {
+        private final Method method;
+        private final List<Object> args;
+
+        CallKey(Method method, List<Object> args) {
+            this.method = method;
+            this.args = args;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CallKey)) {
+                return false;
+            }
+            CallKey other = (CallKey) o;
+            return method.equals(other.method) && args.equals(other.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, args);
+        }
+    }
+
+    private static final class CheckedCallException extends RuntimeException {
+        CheckedCallException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.querydsl.service;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * MemberBulkService 청크 하나가 끝났을 때의 진행 상황
+ * 청크는 여러 스레드에서 동시에 끝나니까 completedChunks 순서와 chunkIndex 순서는 다를 수 있다.
+ */
+@Getter
+@ToString
+public class BulkProgress {
+    private final String operation;
+    private final int chunkIndex;
+    private final int completedChunks;
+    private final int totalChunks;
+    private final long fromId;
+    private final long toId;
+    private final long affectedRows;
+    private final long totalAffectedRows;
+
+    public BulkProgress(String operation, int chunkIndex, int completedChunks, int totalChunks,
+                        long fromId, long toId, long affectedRows, long totalAffectedRows) {
+        this.operation = operation;
+        this.chunkIndex = chunkIndex;
+        this.completedChunks = completedChunks;
+        this.totalChunks = totalChunks;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.affectedRows = affectedRows;
+        this.totalAffectedRows = totalAffectedRows;
+    }
+}
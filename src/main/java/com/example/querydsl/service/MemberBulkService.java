@@ -0,0 +1,229 @@
+package com.example.querydsl.service;
+
+import static com.example.querydsl.entity.QMember.member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.MemberDataChangedEvent;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * member 벌크 수정 (update(member).set(...).where(...))을 id 구간으로 나눠서 실행한다.
+ *
+ * - 조건에 맞는 min(id) ~ max(id)를 chunkSize 구간으로 나누고, 구간마다 별도 트랜잭션(REQUIRES_NEW)으로 짧게 커밋한다.
+ *   한 번의 execute()로 수백만 건을 잡고 있으면 락과 undo가 몇 분씩 유지된다.
+ * - 구간은 concurrency 개의 스레드에서 동시에 실행하고, 구간이 끝날 때마다 progress로 알려준다.
+ * - 전체가 하나의 트랜잭션이 아니다. 중간에 실패하면 이미 커밋된 구간은 그대로 남는다. (age + 1 처럼 멱등이 아닌 수정은 조건으로 다시 걸러야 한다)
+ * - JPQL 벌크 연산은 엔티티 리스너를 타지 않으니, 끝나면 호출한 쪽 영속성 컨텍스트의 Member를 떼어내고, 2차 캐시를 비우고,
+ *   MemberDataChangedEvent를 직접 발행한다.
+ *
+ * 삭제는 deleteBatchSize 구간씩 한 스레드에서 순서대로, 초당 deleteBatchesPerSecond 번까지만 실행한다. (동시에 도는 조회를 굶기지 않도록)
+ *
+ * 조건은 member 컬럼만 쓸 수 있다. (JPQL update/delete는 조인 불가, team 조건은 member.team.id로)
+ * 쓰기 트랜잭션 안에서는 호출하지 않는다. 구간 트랜잭션들이 호출한 쪽 트랜잭션이 잡은 락을 기다리게 된다.
+ */
+@Slf4j
+@Service
+public class MemberBulkService {
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate chunkTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long chunkSize;
+    private final int concurrency;
+    private final long deleteBatchSize;
+    private final double deleteBatchesPerSecond;
+
+    public MemberBulkService(EntityManager em,
+                             JPAQueryFactory queryFactory,
+                             PlatformTransactionManager transactionManager,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${member.bulk.chunk-size:10000}") long chunkSize,
+                             @Value("${member.bulk.concurrency:4}") int concurrency,
+                             @Value("${member.bulk.delete-batch-size:1000}") long deleteBatchSize,
+                             @Value("${member.bulk.delete-batches-per-second:10}") double deleteBatchesPerSecond) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.concurrency = concurrency;
+        this.deleteBatchSize = deleteBatchSize;
+        this.deleteBatchesPerSecond = deleteBatchesPerSecond;
+    }
+
+    public long update(Predicate condition, UnaryOperator<JPAUpdateClause> assignments) {
+        return update(condition, assignments, progress -> {
+        });
+    }
+
+    /**
+     * ex) update(member.age.lt(28), update -> update.set(member.username, "비회원"), progress -> ...)
+     */
+    public long update(Predicate condition, UnaryOperator<JPAUpdateClause> assignments, Consumer<BulkProgress> progress) {
+        return runInChunks("update", condition, chunkSize, concurrency, 0, progress,
+                           (fromId, toId) -> assignments.apply(queryFactory.update(member))
+                                                        .where(condition, member.id.between(fromId, toId))
+                                                        .execute());
+    }
+
+    public long delete(Predicate condition) {
+        return delete(condition, deleteBatchesPerSecond, progress -> {
+        });
+    }
+
+    /**
+     * ex) delete(member.age.gt(18), 5, progress -> ...) : 초당 5구간까지만 삭제
+     * @param batchesPerSecond 0 이하면 제한 없음
+     */
+    public long delete(Predicate condition, double batchesPerSecond, Consumer<BulkProgress> progress) {
+        long intervalNanos = batchesPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / batchesPerSecond) : 0;
+        return runInChunks("delete", condition, deleteBatchSize, 1, intervalNanos, progress,
+                           (fromId, toId) -> queryFactory.delete(member)
+                                                         .where(condition, member.id.between(fromId, toId))
+                                                         .execute());
+    }
+
+    private long runInChunks(String operation, Predicate condition, long chunkSize, int concurrency, long intervalNanos,
+                             Consumer<BulkProgress> progress, ChunkAction action) {
+        Assert.state(!TransactionSynchronizationManager.isActualTransactionActive()
+                     || TransactionSynchronizationManager.isCurrentTransactionReadOnly(),
+                     "Member bulk " + operation + " must not run inside a read-write transaction");
+
+        Tuple range = queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .where(condition)
+                .fetchOne();
+        Long minId = range == null ? null : range.get(member.id.min());
+        Long maxId = range == null ? null : range.get(member.id.max());
+        if (minId == null || maxId == null) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        int totalChunks = (int) ((maxId - minId) / chunkSize + 1);
+        AtomicInteger completedChunks = new AtomicInteger();
+        AtomicLong totalAffectedRows = new AtomicLong();
+        Pacer pacer = new Pacer(intervalNanos);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, totalChunks),
+                                                                 new CustomizableThreadFactory("member-bulk-"));
+        try {
+            List<Future<?>> chunks = new ArrayList<>(totalChunks);
+            for (int chunk = 0; chunk < totalChunks; chunk++) {
+                int chunkIndex = chunk;
+                long fromId = minId + chunk * chunkSize;
+                long toId = Math.min(fromId + chunkSize - 1, maxId);
+                chunks.add(executor.submit(() -> {
+                    pacer.await();
+                    Long affectedRows = chunkTransaction.execute(status -> action.execute(fromId, toId));
+                    long affected = affectedRows == null ? 0 : affectedRows;
+                    BulkProgress chunkProgress = new BulkProgress(operation, chunkIndex, completedChunks.incrementAndGet(), totalChunks,
+                                                                  fromId, toId, affected, totalAffectedRows.addAndGet(affected));
+                    log.debug("member bulk {}", chunkProgress);
+                    progress.accept(chunkProgress);
+                    return null;
+                }));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Member bulk " + operation + " was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Member bulk " + operation + " failed after " + totalAffectedRows.get() + " rows", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            afterBulk(); // 실패해도 커밋된 구간이 있을 수 있다.
+        }
+
+        log.info("member bulk {}: {} rows in {} chunks, {} ms", operation, totalAffectedRows.get(), totalChunks,
+                 System.currentTimeMillis() - start);
+        return totalAffectedRows.get();
+    }
+
+    // 벌크 연산은 영속성 컨텍스트/캐시를 무시하고 바로 DB로 가니까 (md/bulk.md) 끝난 뒤에 맞춰준다.
+    private void afterBulk() {
+        detachMembers();
+        em.getEntityManagerFactory().getCache().evict(Member.class);
+        eventPublisher.publishEvent(new MemberDataChangedEvent(Member.class));
+    }
+
+    // 호출한 쪽 영속성 컨텍스트(OSIV, 읽기 전용 트랜잭션)에 남아있는 Member만 떼어낸다. 다음 조회 때 DB 값으로 다시 읽힌다.
+    private void detachMembers() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+            && !TransactionSynchronizationManager.hasResource(em.getEntityManagerFactory())) {
+            return; // 공유 EntityManager가 바인딩된 영속성 컨텍스트가 없다.
+        }
+        SessionImplementor session = (SessionImplementor) em.unwrap(Session.class);
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContext().reentrantSafeEntityEntries()) {
+            if (entry.getKey() instanceof Member) {
+                em.detach(entry.getKey());
+            }
+        }
+    }
+
+    // 구간 시작 간격을 intervalNanos 이상으로 벌린다. (0이면 바로 시작)
+    private static class Pacer {
+        private final long intervalNanos;
+        private long nextStart = System.nanoTime();
+
+        Pacer(long intervalNanos) {
+            this.intervalNanos = intervalNanos;
+        }
+
+        void await() throws InterruptedException {
+            if (intervalNanos <= 0) {
+                return;
+            }
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long start = Math.max(now, nextStart);
+                nextStart = start + intervalNanos;
+                waitNanos = start - now;
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkAction {
+        long execute(long fromId, long toId);
+    }
+}
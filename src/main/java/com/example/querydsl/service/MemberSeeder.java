@@ -0,0 +1,132 @@
+package com.example.querydsl.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.repository.MemberBulkWriter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 대량 테스트 데이터 생성기
+ *
+ * - 회원 범위를 스레드 수만큼 나눠서 동시에 생성한다. (스레드마다 자기 트랜잭션, 자기 영속성 컨텍스트)
+ * - batchSize 건씩 MemberBulkWriter로 넘겨서 JDBC batch insert 후 flush/clear 한다. (영속성 컨텍스트에 엔티티가 쌓이지 않도록)
+ * - commitSize 건마다 커밋해서 트랜잭션 하나가 너무 길어지지 않게 한다.
+ * - 팀 배정은 teamSkew 만큼 앞쪽 팀에 몰리고(1.0이면 균등), 나이는 35살 근처 정규분포다.
+ */
+@Slf4j
+@Component
+public class MemberSeeder {
+    private final EntityManager em;
+    private final MemberBulkWriter memberBulkWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int commitSize;
+    private final int threads;
+    private final double teamSkew;
+
+    public MemberSeeder(EntityManager em,
+                        MemberBulkWriter memberBulkWriter,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${member.seed.batch-size:500}") int batchSize,
+                        @Value("${member.seed.commit-size:50000}") int commitSize,
+                        @Value("${member.seed.threads:4}") int threads,
+                        @Value("${member.seed.team-skew:1.0}") double teamSkew) {
+        this.em = em;
+        this.memberBulkWriter = memberBulkWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.commitSize = commitSize;
+        this.threads = threads;
+        this.teamSkew = teamSkew;
+    }
+
+    public void seed(int teamCount, int memberCount) {
+        long start = System.currentTimeMillis();
+        List<Long> teamIds = createTeams(teamCount);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            int sliceSize = (memberCount + threads - 1) / threads;
+            for (int worker = 0; worker < threads; worker++) {
+                int from = worker * sliceSize;
+                int to = Math.min(from + sliceSize, memberCount);
+                Random random = new Random(worker); // 매번 같은 데이터가 나오도록 고정 시드
+                workers.add(executor.submit(() -> createMembers(from, to, teamIds, random)));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Member seeding was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Member seeding failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        log.info("seeded {} teams, {} members in {} ms", teamCount, memberCount, System.currentTimeMillis() - start);
+    }
+
+    private List<Long> createTeams(int teamCount) {
+        List<Team> teams = new ArrayList<>(teamCount);
+        for (int i = 0; i < teamCount; i++) {
+            teams.add(new Team(teamName(i)));
+        }
+        memberBulkWriter.writeTeams(teams);
+
+        List<Long> teamIds = new ArrayList<>(teamCount);
+        teams.forEach(team -> teamIds.add(team.getId()));
+        return teamIds;
+    }
+
+    private void createMembers(int from, int to, List<Long> teamIds, Random random) {
+        for (int commitStart = from; commitStart < to; commitStart += commitSize) {
+            int commitEnd = Math.min(commitStart + commitSize, to);
+            int first = commitStart;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int batchStart = first; batchStart < commitEnd; batchStart += batchSize) {
+                    int batchEnd = Math.min(batchStart + batchSize, commitEnd);
+                    List<Member> batch = new ArrayList<>(batchEnd - batchStart);
+                    for (int i = batchStart; i < batchEnd; i++) {
+                        Member member = new Member("member" + i, age(random));
+                        // new Member(.., team)은 team.getMembers()를 초기화하니까 프록시만 연결한다.
+                        member.setTeam(em.getReference(Team.class, teamIds.get(teamIndex(random, teamIds.size()))));
+                        batch.add(member);
+                    }
+                    memberBulkWriter.writeMembers(batch); // 같은 트랜잭션에 참여, batch마다 flush/clear
+                }
+            });
+        }
+    }
+
+    private int teamIndex(Random random, int teamCount) {
+        return Math.min((int) (teamCount * Math.pow(random.nextDouble(), teamSkew)), teamCount - 1);
+    }
+
+    private static int age(Random random) {
+        return (int) Math.max(1, Math.min(99, Math.round(35 + random.nextGaussian() * 12)));
+    }
+
+    // teamA ~ teamZ, 그 다음부터는 team26, team27 ...
+    static String teamName(int index) {
+        return index < 26 ? "team" + (char) ('A' + index) : "team" + index;
+    }
+}
@@ -18,6 +18,7 @@ import javax.persistence.PersistenceUnit;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Commit;
@@ -29,6 +30,7 @@ import com.example.querydsl.entity.Member;
 import com.example.querydsl.entity.QMember;
 import com.example.querydsl.entity.QTeam;
 import com.example.querydsl.entity.Team;
+import com.example.querydsl.support.QueryBudget;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.QueryResults;
 import com.querydsl.core.Tuple;
@@ -533,6 +535,30 @@ public class QuerydslBasicTest {
         assertTrue(loaded, "페치 조인 적용");
     }
 
+    @Nested
+    @DisplayName("페치 조인 - 쿼리 수")
+    class FetchJoinQueryCount {
+
+        @BeforeEach
+        void flushAndClear() {
+            em.flush(); // insert는 @QueryBudget에 넣지 않는다.
+            em.clear();
+        }
+
+        @DisplayName("페치 조인이면 member 목록의 team 이름까지 쿼리 한 번 (N+1 X)")
+        @QueryBudget(1) // team에 접근할 때마다 select가 나가면 실패
+        @Test
+        void fetch_join_team_name() {
+            List<Member> result = queryFactory
+                    .selectFrom(member)
+                    .join(member.team, team).fetchJoin()
+                    .fetch();
+
+            assertThat(result).extracting(m -> m.getTeam().getName())
+                              .containsExactlyInAnyOrder("teamA", "teamA", "teamB", "teamB");
+        }
+    }
+
     /**
      * 서브 쿼리
      * com.querydsl.jpa.JPAExpressions 사용
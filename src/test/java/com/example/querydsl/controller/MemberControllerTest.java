@@ -0,0 +1,82 @@
+package com.example.querydsl.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.querydsl.entity.Member;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager em;
+
+    @DisplayName("데이터가 그대로면 If-None-Match에 304, 바뀌면 다시 200")
+    @Test
+    void etag() throws Exception {
+        String etag = mockMvc.perform(get("/v2/members").param("ageGoe", "10"))
+                             .andExpect(status().isOk())
+                             .andExpect(header().exists(HttpHeaders.ETAG))
+                             .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                             .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/v2/members").param("ageGoe", "10").header(HttpHeaders.IF_NONE_MATCH, etag))
+               .andExpect(status().isNotModified())
+               .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        em.persist(new Member("member1", 10));
+        em.flush();
+        TestTransaction.end(); // 변경 이벤트는 트랜잭션이 끝난 뒤에 발행된다. (롤백이어도)
+
+        mockMvc.perform(get("/v2/members").param("ageGoe", "10").header(HttpHeaders.IF_NONE_MATCH, etag))
+               .andExpect(status().isOk());
+    }
+
+    @DisplayName("비동기 검색은 요청 스레드를 반환하고 MemberSearchExecutor에서 조회한다")
+    @Test
+    void async() throws Exception {
+        MvcResult result = mockMvc.perform(get("/v3/members/async").param("teamName", "noSuchTeam"))
+                                  .andExpect(request().asyncStarted())
+                                  .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.totalElements").value(0))
+               .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    @DisplayName("keyset - 깨진 커서, size <= 0 이면 400, 너무 큰 size는 상한으로")
+    @Test
+    void keysetBadRequest() throws Exception {
+        mockMvc.perform(get("/v5/members").param("cursor", "!!not-a-cursor"))
+               .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v5/members").param("cursor", "YWJj")) // "abc" -> Long 변환 실패
+               .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v5/members").param("size", "0"))
+               .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v5/members").param("size", "10000000"))
+               .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.querydsl.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.example.querydsl.dto.MemberTeamDto;
+
+class MemberTeamColumnarHttpMessageConverterTest {
+    private static final Type MEMBER_LIST = new ParameterizedTypeReference<List<MemberTeamDto>>() {}.getType();
+    private static final Type MEMBER_PAGE = new ParameterizedTypeReference<Page<MemberTeamDto>>() {}.getType();
+    private static final Type STRING_LIST = new ParameterizedTypeReference<List<String>>() {}.getType();
+
+    private final MemberTeamColumnarHttpMessageConverter converter = new MemberTeamColumnarHttpMessageConverter();
+
+    @DisplayName("List/Page<MemberTeamDto>만 columnar로 쓸 수 있다")
+    @Test
+    void canWrite() {
+        assertTrue(converter.canWrite(MEMBER_LIST, List.class, MemberMediaTypes.MEMBER_COLUMNAR));
+        assertTrue(converter.canWrite(MEMBER_PAGE, Page.class, MemberMediaTypes.MEMBER_COLUMNAR));
+        assertFalse(converter.canWrite(STRING_LIST, List.class, MemberMediaTypes.MEMBER_COLUMNAR));
+        assertFalse(converter.canWrite(MEMBER_LIST, List.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(MEMBER_LIST, null, MemberMediaTypes.MEMBER_COLUMNAR));
+    }
+
+    @DisplayName("컬럼별로 쓰고 팀은 사전으로 한 번만 쓴다")
+    @Test
+    void write() throws IOException {
+        List<MemberTeamDto> rows = Arrays.asList(
+                new MemberTeamDto(1L, "member1", 10, 1L, "teamA"),
+                new MemberTeamDto(2L, "member2", 20, 2L, "teamB"),
+                new MemberTeamDto(3L, "member3", 30, 1L, "teamA"),
+                new MemberTeamDto(4L, "member4", 40, null, null));
+        Page<MemberTeamDto> page = new PageImpl<>(rows, PageRequest.of(0, 4), 100);
+
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(page, MEMBER_PAGE, MemberMediaTypes.MEMBER_COLUMNAR, message);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(message.getBodyAsBytes()));
+        assertEquals(MemberTeamColumnarHttpMessageConverter.MAGIC, in.readInt());
+        assertEquals(MemberTeamColumnarHttpMessageConverter.VERSION, in.readByte());
+        assertEquals(4, in.readInt());
+        assertEquals(100, in.readLong());
+        for (long id = 1; id <= 4; id++) {
+            assertEquals(id, in.readLong());
+        }
+        for (int i = 1; i <= 4; i++) {
+            assertEquals("member" + i, readString(in));
+        }
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i * 10, in.readInt());
+        }
+        assertEquals(2, in.readInt());
+        assertEquals(1L, in.readLong());
+        assertEquals("teamA", readString(in));
+        assertEquals(2L, in.readLong());
+        assertEquals("teamB", readString(in));
+        assertEquals(0, in.readInt());
+        assertEquals(1, in.readInt());
+        assertEquals(0, in.readInt());
+        assertEquals(-1, in.readInt());
+        assertEquals(-1, in.read()); // 끝
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.querydsl.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * in-memory H2 두 개를 primary, replica로 놓고 어느 쪽으로 가는지 본다.
+ * 각 DB의 server 테이블에 자기 이름을 넣어두고 읽어서 확인한다.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setup() {
+        DataSource primary = h2("primary");
+        DataSource replica = h2("replica");
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(ReadWriteRoutingDataSource.Route.PRIMARY, primary,
+                                            ReadWriteRoutingDataSource.Route.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @DisplayName("읽기 전용 트랜잭션은 replica")
+    @Test
+    void readOnlyTransaction() {
+        assertEquals("replica", readOnly.execute(status -> serverName()));
+    }
+
+    @DisplayName("쓰기 트랜잭션은 primary")
+    @Test
+    void readWriteTransaction() {
+        assertEquals("primary", readWrite.execute(status -> serverName()));
+    }
+
+    @DisplayName("트랜잭션 밖은 primary")
+    @Test
+    void noTransaction() {
+        assertEquals("primary", serverName());
+    }
+
+    private String serverName() {
+        return jdbcTemplate.queryForObject("select name from server", String.class);
+    }
+
+    private static DataSource h2(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists server (name varchar(20))");
+        jdbcTemplate.execute("delete from server");
+        jdbcTemplate.update("insert into server values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.querydsl.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.dto.MemberTeamDto;
+import com.example.querydsl.repository.MemberJpaRepository;
+import com.example.querydsl.repository.MemberRepository;
+
+/**
+ * JpaTransactionManager + @Transactional(readOnly = true) 검색이 실제로 replica로 가는지 본다.
+ * in-memory H2 두 개를 primary, replica로 놓고 같은 스키마에 서로 다른 회원을 넣어서, 검색 결과로 어느 쪽에서 읽었는지 확인한다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingConfigTest.PRIMARY_URL,
+        "spring.datasource.replica.url=" + ReplicaRoutingConfigTest.REPLICA_URL,
+        "spring.datasource.replica.username=sa",
+        "spring.datasource.replica.password="
+})
+class ReplicaRoutingConfigTest {
+    static final String PRIMARY_URL = "jdbc:h2:mem:routingPrimary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routingReplica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void setup() {
+        // 스키마는 Hibernate(ddl-auto)가 primary에만 만든다. replica에도 같은 스키마를 만든다.
+        replica.execute("drop all objects");
+        primary.queryForList("script nodata", String.class).stream()
+               .filter(statement -> !statement.startsWith("--") && !statement.startsWith("CREATE USER"))
+               .forEach(replica::execute);
+
+        primary.update("insert into team (team_id, name) values (1, 'teamA')");
+        primary.update("insert into member (member_id, username, age, team_id) values (1, 'primaryMember', 10, 1)");
+        replica.update("insert into team (team_id, name) values (1, 'teamA')");
+        replica.update("insert into member (member_id, username, age, team_id) values (1, 'replicaMember', 10, 1)");
+    }
+
+    @AfterEach
+    void cleanup() {
+        for (JdbcTemplate db : List.of(primary, replica)) {
+            db.update("delete from member");
+            db.update("delete from team");
+        }
+    }
+
+    @DisplayName("MemberRepositoryImpl.search (readOnly) - replica에서 읽는다")
+    @Test
+    void memberRepository_search() {
+        List<MemberTeamDto> result = memberRepository.search(new MemberSearchCondition());
+
+        assertThat(result).extracting("username").containsExactly("replicaMember");
+    }
+
+    @DisplayName("MemberJpaRepository.search (readOnly) - replica에서 읽는다")
+    @Test
+    void memberJpaRepository_search() {
+        List<MemberTeamDto> result = memberJpaRepository.search(new MemberSearchCondition());
+
+        assertThat(result).extracting("username").containsExactly("replicaMember");
+    }
+
+    @DisplayName("쓰기 트랜잭션 - 안에서 호출한 readOnly 메서드도 primary에서 읽는다")
+    @Test
+    void readWriteTransaction() {
+        List<MemberTeamDto> result = new TransactionTemplate(transactionManager)
+                .execute(status -> memberRepository.search(new MemberSearchCondition()));
+
+        assertThat(result).extracting("username").containsExactly("primaryMember");
+    }
+}
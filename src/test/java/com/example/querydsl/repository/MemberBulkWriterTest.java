@@ -0,0 +1,59 @@
+package com.example.querydsl.repository;
+
+import static com.example.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.metrics.ThreadQueryCounter;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+@SpringBootTest
+@Transactional
+class MemberBulkWriterTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberBulkWriter memberBulkWriter;
+
+    @DisplayName("팀, 회원 대량 insert - batch 크기를 넘어가도 flush/clear 후 계속 저장된다")
+    @Test
+    void write() {
+        Team teamA = new Team("teamA");
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            Member member = new Member("member" + i, i % 100);
+            member.setTeam(teamA);
+            members.add(member);
+        }
+
+        long start = ThreadQueryCounter.statements();
+        memberBulkWriter.write(List.of(teamA), members);
+        long statements = ThreadQueryCounter.statements() - start;
+
+        // 시퀀스 : team 1번 + member 1200 / 50 = 24번 (pooled-lo), insert : team 1번 + member 500/500/200 3번 (executeBatch 단위)
+        // batch나 시퀀스 할당이 꺼지면 1200번 넘게 나간다.
+        assertThat(statements).isLessThanOrEqualTo(1 + 24 + 1 + 3);
+
+        long count = new JPAQueryFactory(em)
+                .selectFrom(member)
+                .where(member.team.id.eq(teamA.getId()))
+                .fetchCount();
+        assertEquals(1200, count);
+        assertThat(members).extracting("id").doesNotContainNull().doesNotHaveDuplicates();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.querydsl.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.MemberDataChangedEvent;
+
+class MemberCountCacheTest {
+    private final MemberCountCache countCache = new MemberCountCache(100, Duration.ofMinutes(1));
+
+    @DisplayName("트랜잭션 밖에서는 같은 조건이면 캐시, Member가 바뀌면 무효화")
+    @Test
+    void cache() {
+        AtomicInteger countQueries = new AtomicInteger();
+        MemberSearchCondition condition = new MemberSearchCondition("", "teamA", null, null);
+
+        assertEquals(2, countCache.get(condition, () -> countQueries.incrementAndGet() + 1));
+        assertEquals(2, countCache.get(new MemberSearchCondition(null, "teamA", null, null), () -> countQueries.incrementAndGet() + 1));
+        assertEquals(1, countQueries.get());
+
+        countCache.onMemberDataChanged(new MemberDataChangedEvent(Member.class));
+        assertNull(countCache.getIfPresent(condition));
+    }
+
+    @DisplayName("세는 도중에 무효화되면 그 카운트는 저장하지 않는다")
+    @Test
+    void invalidatedWhileCounting() {
+        MemberSearchCondition condition = new MemberSearchCondition(null, "teamA", null, null);
+
+        long count = countCache.get(condition, () -> {
+            countCache.onMemberDataChanged(new MemberDataChangedEvent(Member.class)); // 다른 스레드의 커밋
+            return 2;
+        });
+
+        assertEquals(2, count);
+        assertNull(countCache.getIfPresent(condition));
+    }
+}
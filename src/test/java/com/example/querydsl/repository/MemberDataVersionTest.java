@@ -0,0 +1,33 @@
+package com.example.querydsl.repository;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.MemberDataChangedEvent;
+
+class MemberDataVersionTest {
+
+    @DisplayName("Member/Team이 바뀌면 ETag가 바뀐다")
+    @Test
+    void etag() {
+        MemberDataVersion version = new MemberDataVersion("");
+        String before = version.etag();
+
+        version.onMemberDataChanged(new MemberDataChangedEvent(Member.class));
+
+        assertNotEquals(before, version.etag());
+    }
+
+    @DisplayName("replica 라우팅 중에는 ETag를 쓰지 않는다 (복제 지연된 결과에 새 버전이 붙을 수 있어서)")
+    @Test
+    void disabledWithReplica() {
+        MemberDataVersion version = new MemberDataVersion("jdbc:h2:mem:replica");
+
+        assertNull(version.etag());
+        assertNull(version.etag("page"));
+    }
+}
@@ -3,11 +3,14 @@ package com.example.querydsl.repository;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.persistence.EntityManager;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -17,6 +20,7 @@ import com.example.querydsl.dto.MemberSearchCondition;
 import com.example.querydsl.dto.MemberTeamDto;
 import com.example.querydsl.entity.Member;
 import com.example.querydsl.entity.Team;
+import com.example.querydsl.support.QueryBudget;
 
 @SpringBootTest
 @Transactional
@@ -86,4 +90,60 @@ class MemberJpaRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member4");
     }
 
-}
\ No newline at end of file
+    @DisplayName("List로 모으지 않고 한 건씩 스트리밍")
+    @Test
+    void searchForEach() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        List<String> usernames = new ArrayList<>();
+        memberJpaRepository.searchForEach(condition, dto -> usernames.add(dto.getUsername()));
+
+        assertThat(usernames).containsExactlyInAnyOrder("member1", "member2");
+    }
+
+    @Nested
+    @DisplayName("searchMember - Member 엔티티 + team 접근")
+    class SearchMember {
+
+        @BeforeEach
+        void setup() {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            for (int i = 1; i <= 4; i++) {
+                em.persist(new Member("member" + i, i * 10, i % 2 == 0 ? teamB : teamA));
+            }
+            em.flush(); // insert는 @QueryBudget에 넣지 않는다.
+            em.clear();
+        }
+
+        @DisplayName("FETCH_JOIN - 쿼리 한 번")
+        @Test
+        @QueryBudget(1)
+        void fetchJoin() {
+            List<Member> members = memberJpaRepository.searchMember(new MemberSearchCondition(), MemberFetchPlan.FETCH_JOIN);
+
+            assertThat(members).extracting(member -> member.getTeam().getName()).containsOnly("teamA", "teamB");
+        }
+
+        @DisplayName("BATCH - member 한 번 + team in 쿼리 한 번")
+        @Test
+        @QueryBudget(2)
+        void batch() {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setAgeGoe(20);
+            List<Member> members = memberJpaRepository.searchMember(condition, MemberFetchPlan.BATCH);
+
+            assertThat(members).hasSize(3);
+            assertThat(members).extracting(member -> member.getTeam().getName()).containsOnly("teamA", "teamB");
+        }
+    }
+}
@@ -4,6 +4,7 @@ import static com.example.querydsl.entity.QMember.member;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.persistence.EntityManager;
@@ -14,6 +15,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.querydsl.dto.MemberSearchCondition;
@@ -21,9 +23,13 @@ import com.example.querydsl.dto.MemberTeamDto;
 import com.example.querydsl.entity.Member;
 import com.example.querydsl.entity.QMember;
 import com.example.querydsl.entity.Team;
+import com.example.querydsl.metrics.ThreadQueryCounter;
+import com.example.querydsl.repository.support.ApproximatePage;
+import com.example.querydsl.support.QueryBudget;
 
 @SpringBootTest
 @Transactional
+@QueryBudget(30)
 class MemberRepositoryTest {
 
     @Autowired
@@ -32,6 +38,12 @@ class MemberRepositoryTest {
     @Autowired
     MemberRepository memberRepository;
 
+    @Autowired
+    MemberCountCache countCache;
+
+    @Autowired
+    MemberDataVersion memberDataVersion;
+
     @Test
     void basicTest() {
         Member member = new Member("member1", 10);
@@ -99,6 +111,183 @@ class MemberRepositoryTest {
         assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
     }
 
+    @DisplayName("카운트 캐시 - 쓰기 트랜잭션 안에서 센 카운트는 캐시하지 않는다 (커밋 안 된 row)")
+    @Test
+    void searchPageComplex_countCache() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        PageRequest pageRequest = PageRequest.of(0, 1);
+
+        assertEquals(2, memberRepository.searchPageComplex(condition, pageRequest).getTotalElements());
+        assertEquals(2, memberRepository.searchPageComplex(condition, pageRequest.next()).getTotalElements());
+        assertNull(countCache.getIfPresent(condition));
+
+        em.persist(new Member("member3", 30, teamA));
+
+        assertEquals(3, memberRepository.searchPageComplex(condition, pageRequest).getTotalElements());
+    }
+
+    @DisplayName("MemberDataChangedEvent - 트랜잭션 안에서는 행마다 발행하지 않고 커밋/롤백 이후에 발행한다")
+    @Test
+    void dataChangedEvent_afterCompletion() {
+        String before = memberDataVersion.etag();
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.flush();
+        assertEquals(before, memberDataVersion.etag());
+
+        TestTransaction.end(); // 롤백
+        assertNotEquals(before, memberDataVersion.etag());
+    }
+
+    @DisplayName("deferred join - offset이 크면 id 먼저 페이징해도 같은 순서/결과")
+    @Test
+    void searchPageComplex_deferredJoin() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 1; i <= 6; i++) {
+            em.persist(new Member("member" + i, i * 10, i % 2 == 0 ? teamB : teamA));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        Page<MemberTeamDto> shallow = memberRepository.searchPageComplex(condition, PageRequest.of(0, 2));
+        Page<MemberTeamDto> deep = memberRepository.searchPageComplex(condition, PageRequest.of(1, 2));
+        assertThat(shallow.getContent()).extracting("username").containsExactly("member1", "member2");
+        assertThat(deep.getContent()).extracting("username").containsExactly("member3", "member4");
+        assertThat(deep.getContent()).extracting("teamName").containsExactly("teamA", "teamB");
+
+        condition.setTeamName("teamB");
+        Page<MemberTeamDto> deepWithTeam = memberRepository.searchPageComplex(condition, PageRequest.of(1, 2));
+        assertThat(deepWithTeam.getContent()).extracting("username").containsExactly("member6");
+        assertEquals(3, deepWithTeam.getTotalElements());
+    }
+
+    @DisplayName("searchPageForEach - searchPageComplex와 같은 행/순서/total을 DTO 없이 넘겨준다")
+    @Test
+    void searchPageForEach() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("member" + i, i * 10, i % 2 == 0 ? teamB : teamA));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        for (int page = 0; page < 3; page++) { // 2페이지부터는 deferred join (test application.yml)
+            PageRequest pageRequest = PageRequest.of(page, 2);
+            Page<MemberTeamDto> expected = memberRepository.searchPageComplex(condition, pageRequest);
+
+            List<MemberTeamDto> rows = new ArrayList<>();
+            long total = memberRepository.searchPageForEach(condition, pageRequest, (memberId, username, age, teamId, teamName) ->
+                    rows.add(new MemberTeamDto(memberId, username, age, teamId, teamName)));
+
+            assertEquals(expected.getContent(), rows);
+            assertEquals(expected.getTotalElements(), total);
+        }
+    }
+
+    @DisplayName("쓰기 트랜잭션 안에서도 team 사전은 행마다 다시 읽지 않는다")
+    @Test
+    void teamDictionary_inWriteTransaction() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 1; i <= 4; i++) {
+            em.persist(new Member("member" + i, i * 10, i % 2 == 0 ? teamB : teamA));
+        }
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        memberRepository.searchPageSimple(condition, PageRequest.of(0, 4)); // 사전을 이 트랜잭션에 올린다.
+
+        long start = ThreadQueryCounter.statements();
+        Page<MemberTeamDto> page = memberRepository.searchPageSimple(new MemberSearchCondition(), PageRequest.of(0, 4));
+        assertThat(page.getContent()).extracting("teamName").containsExactlyInAnyOrder("teamA", "teamB", "teamA", "teamB");
+        assertEquals(2, ThreadQueryCounter.statements() - start); // 카운트 + 컨텐츠
+    }
+
+    @DisplayName("쓰기 트랜잭션 안에서 팀 이름을 바꾸면 그 트랜잭션의 team 사전도 다시 읽는다")
+    @Test
+    void teamDictionary_renamedInWriteTransaction() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.flush();
+        memberRepository.searchPageSimple(new MemberSearchCondition(), PageRequest.of(0, 4)); // 사전을 이 트랜잭션에 올린다.
+
+        teamA.setName("teamC");
+        em.flush();
+
+        Page<MemberTeamDto> page = memberRepository.searchPageSimple(new MemberSearchCondition(), PageRequest.of(0, 4));
+        assertThat(page.getContent()).extracting("teamName").containsExactly("teamC");
+    }
+
+    @DisplayName("없는 팀 이름으로 검색하면 빈 결과")
+    @Test
+    void search_unknownTeam() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamX");
+
+        assertThat(memberRepository.search(condition)).isEmpty();
+        Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+        assertThat(page.getContent()).isEmpty();
+        assertEquals(0, page.getTotalElements());
+    }
+
+    @DisplayName("근사 카운트 - threshold를 넘으면 totalApproximate")
+    @Test
+    void searchPageApproximateCount() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeLoe(20);
+        ApproximatePage<MemberTeamDto> exact = (ApproximatePage<MemberTeamDto>) memberRepository.searchPageApproximateCount(condition, PageRequest.of(0, 1));
+        assertFalse(exact.isTotalApproximate());
+        assertEquals(2, exact.getTotalElements());
+
+        condition.setAgeLoe(null);
+        ApproximatePage<MemberTeamDto> approximate = (ApproximatePage<MemberTeamDto>) memberRepository.searchPageApproximateCount(condition, PageRequest.of(0, 1));
+        assertTrue(approximate.isTotalApproximate());
+        assertEquals(3, approximate.getTotalElements()); // 테스트 설정 threshold = 3
+        assertTrue(approximate.hasNext());
+
+        // threshold 경계 이후에도 꽉 찬 페이지면 다음 페이지가 있다.
+        for (int page = 2; page <= 3; page++) {
+            ApproximatePage<MemberTeamDto> deep = (ApproximatePage<MemberTeamDto>) memberRepository.searchPageApproximateCount(condition, PageRequest.of(page, 1));
+            assertTrue(deep.isTotalApproximate());
+            assertTrue(deep.hasNext(), "page " + page);
+            assertThat(deep.getTotalElements()).isGreaterThan(page + 1);
+        }
+
+        // threshold를 넘는 위치여도 덜 찬 페이지면 마지막 페이지라 total이 정확하고, 카운트 쿼리도 없다.
+        long start = ThreadQueryCounter.statements();
+        ApproximatePage<MemberTeamDto> last = (ApproximatePage<MemberTeamDto>) memberRepository.searchPageApproximateCount(condition, PageRequest.of(1, 4));
+        assertEquals(1, ThreadQueryCounter.statements() - start); // 컨텐츠
+        assertFalse(last.isTotalApproximate());
+        assertEquals(5, last.getTotalElements());
+        assertTrue(last.isLast());
+    }
+
     @DisplayName("QuerydslPredicateExecutor")
     @Test
     void querydslPredicateExecutorTest() {
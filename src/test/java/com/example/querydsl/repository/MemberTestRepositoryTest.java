@@ -0,0 +1,136 @@
+package com.example.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.querydsl.dto.MemberKeysetSort;
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.repository.support.KeysetPage;
+import com.example.querydsl.support.QueryBudget;
+
+@SpringBootTest
+@Transactional
+class MemberTestRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @BeforeEach
+    void setup() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 40, teamA));
+        em.persist(new Member("member2", 30, teamA));
+        em.persist(new Member("member3", 20, teamB));
+        em.persist(new Member("member4", 10, teamB));
+        em.flush(); // insert는 테스트 메서드의 @QueryBudget에 넣지 않는다.
+        em.clear();
+    }
+
+    @DisplayName("keyset 페이징 - id 순으로 커서를 따라간다")
+    @Test
+    void searchKeyset_id() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        KeysetPage<MemberTeamDto> first = memberTestRepository.searchKeyset(condition, MemberKeysetSort.ID, null, 3);
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertTrue(first.isHasNext());
+
+        KeysetPage<MemberTeamDto> second = memberTestRepository.searchKeyset(condition, MemberKeysetSort.ID, first.getNextCursor(), 3);
+        assertThat(second.getContent()).extracting("username").containsExactly("member4");
+        assertFalse(second.isHasNext());
+        assertNull(second.getNextCursor());
+    }
+
+    @DisplayName("keyset 페이징 - (age, id) 순으로 커서를 따라간다")
+    @Test
+    void searchKeyset_age() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(15);
+
+        KeysetPage<MemberTeamDto> first = memberTestRepository.searchKeyset(condition, MemberKeysetSort.AGE, null, 2);
+        assertThat(first.getContent()).extracting("username").containsExactly("member3", "member2");
+
+        KeysetPage<MemberTeamDto> second = memberTestRepository.searchKeyset(condition, MemberKeysetSort.AGE, first.getNextCursor(), 2);
+        assertThat(second.getContent()).extracting("username").containsExactly("member1");
+        assertFalse(second.isHasNext());
+    }
+
+    @DisplayName("동시 카운트 페이징 - 쓰기 트랜잭션 안에서는 순서대로 실행해서 아직 커밋 안 된 데이터도 센다")
+    @Test
+    void applyPaginationConcurrently() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        Page<Member> result = memberTestRepository.applyPaginationConcurrently(condition, PageRequest.of(0, 1));
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+    }
+
+    @DisplayName("applyPagination - 컨텐츠 쿼리에서 만든 카운트 쿼리")
+    @Test
+    void applyPagination_derivedCount() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        assertThat(memberTestRepository.applyPagination(condition, PageRequest.of(0, 3)).getTotalElements()).isEqualTo(4);
+
+        condition.setTeamName("teamA");
+        Page<Member> teamA = memberTestRepository.applyPagination(condition, PageRequest.of(0, 1));
+        assertThat(teamA.getContent()).hasSize(1);
+        assertThat(teamA.getTotalElements()).isEqualTo(2);
+    }
+
+    @DisplayName("fetch plan FETCH_JOIN - team을 써도 추가 쿼리 없음, 카운트는 fetch join 없이")
+    @Test
+    @QueryBudget(2) // 컨텐츠(fetch join) + 카운트
+    void searchPageByApplyPage_fetchJoin() {
+        Page<Member> page = memberTestRepository.searchPageByApplyPage(new MemberSearchCondition(), PageRequest.of(0, 3), MemberFetchPlan.FETCH_JOIN);
+
+        assertThat(page.getContent()).extracting(member -> member.getTeam().getName()).containsOnly("teamA", "teamB");
+        assertThat(page.getTotalElements()).isEqualTo(4);
+    }
+
+    @DisplayName("fetch plan BATCH - team은 in 쿼리 한 번")
+    @Test
+    @QueryBudget(3) // 컨텐츠 + team in (...) + 카운트
+    void searchPageByApplyPage_batch() {
+        Page<Member> page = memberTestRepository.searchPageByApplyPage(new MemberSearchCondition(), PageRequest.of(0, 3), MemberFetchPlan.BATCH);
+
+        assertThat(page.getContent()).extracting(member -> member.getTeam().getName()).containsOnly("teamA", "teamB");
+        assertThat(page.getTotalElements()).isEqualTo(4);
+    }
+
+    @DisplayName("fetch plan FETCH_JOIN - 첫 페이지에서 다 나오면 카운트 쿼리도 없음")
+    @Test
+    @QueryBudget(1)
+    void searchPageByApplyPage_fetchJoin_teamName() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        Page<Member> page = memberTestRepository.searchPageByApplyPage(condition, PageRequest.of(0, 3), MemberFetchPlan.FETCH_JOIN);
+
+        assertThat(page.getContent()).extracting(member -> member.getTeam().getName()).containsOnly("teamB");
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+}
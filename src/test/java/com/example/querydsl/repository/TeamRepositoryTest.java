@@ -0,0 +1,81 @@
+package com.example.querydsl.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.metrics.ThreadQueryCounter;
+
+/**
+ * READ_WRITE 2차 캐시는 커밋된 뒤에 채워지니까 테스트 트랜잭션(@Transactional) 없이 실행하고 직접 정리한다.
+ * 리포지토리 호출마다 각자 트랜잭션(영속성 컨텍스트)이라 1차 캐시가 아니라 2차 캐시/쿼리 캐시에서 읽는지 볼 수 있다.
+ */
+@SpringBootTest
+class TeamRepositoryTest {
+    private static final String NAME = "teamRepositoryTest";
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    Team saved;
+
+    @BeforeEach
+    void setup() {
+        saved = teamRepository.save(new Team(NAME));
+    }
+
+    @AfterEach
+    void cleanup() {
+        teamRepository.deleteById(saved.getId());
+    }
+
+    @DisplayName("findById - 두 번째 조회부터는 team 리전에서 읽고 SQL이 나가지 않는다")
+    @Test
+    void findById_secondLevelCache() {
+        Statistics statistics = statistics();
+        teamRepository.findById(saved.getId()).orElseThrow();
+
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long start = ThreadQueryCounter.statements();
+        Team team = teamRepository.findById(saved.getId()).orElseThrow();
+
+        assertEquals(NAME, team.getName());
+        assertEquals(0, ThreadQueryCounter.statements() - start);
+        assertTrue(statistics.getSecondLevelCacheHitCount() > hits);
+    }
+
+    @DisplayName("findByName - 두 번째 조회부터는 쿼리 캐시(team-by-name) + team 리전에서 읽고 SQL이 나가지 않는다")
+    @Test
+    void findByName_queryCache() {
+        Statistics statistics = statistics();
+        teamRepository.findByName(NAME).orElseThrow();
+
+        long queryHits = statistics.getQueryCacheHitCount();
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long start = ThreadQueryCounter.statements();
+        Team team = teamRepository.findByName(NAME).orElseThrow();
+
+        assertEquals(saved.getId(), team.getId());
+        assertEquals(0, ThreadQueryCounter.statements() - start);
+        assertEquals(queryHits + 1, statistics.getQueryCacheHitCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > hits);
+    }
+
+    private Statistics statistics() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+}
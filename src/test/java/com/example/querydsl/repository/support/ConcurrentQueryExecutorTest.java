@@ -0,0 +1,85 @@
+package com.example.querydsl.repository.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+@SpringBootTest
+class ConcurrentQueryExecutorTest {
+
+    @Autowired
+    ConcurrentQueryExecutor concurrentQueryExecutor;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @DisplayName("다른 스레드의 쿼리도 읽기 전용 트랜잭션 안에서 실행된다 (컨텐츠 쿼리와 같은 replica로)")
+    @Test
+    void readOnlyTransaction() throws InterruptedException {
+        CountDownLatch executed = new CountDownLatch(1);
+        ConcurrentQueryExecutor.Task<Boolean> task = concurrentQueryExecutor.submit(factory -> {
+            executed.countDown();
+            return TransactionSynchronizationManager.isActualTransactionActive()
+                   && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        });
+        assertTrue(executed.await(5, TimeUnit.SECONDS)); // join 전에 작업 스레드가 실행하도록
+
+        assertTrue(task.join(queryFactory));
+    }
+
+    @DisplayName("작업 스레드를 못 잡은 작업(큐 대기, 거절)은 join()한 스레드가 실행한다")
+    @Test
+    void callerRunsPendingTask() throws InterruptedException {
+        ConcurrentQueryExecutor executor = new ConcurrentQueryExecutor(em, transactionManager, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            ConcurrentQueryExecutor.Task<String> busy = executor.submit(factory -> {
+                started.countDown();
+                await(release);
+                return Thread.currentThread().getName();
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            ConcurrentQueryExecutor.Task<String> queued = executor.submit(factory -> Thread.currentThread().getName());
+            ConcurrentQueryExecutor.Task<String> rejected = executor.submit(factory -> Thread.currentThread().getName());
+
+            String caller = Thread.currentThread().getName();
+            assertEquals(caller, rejected.join(queryFactory));
+            assertEquals(caller, queued.join(queryFactory));
+
+            release.countDown();
+            assertTrue(busy.join(queryFactory).startsWith("concurrent-query-"));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
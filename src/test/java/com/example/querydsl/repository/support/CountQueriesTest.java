@@ -0,0 +1,110 @@
+package com.example.querydsl.repository.support;
+
+import static com.example.querydsl.entity.QMember.member;
+import static com.example.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.jpa.JPAQueryMixin;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+@SpringBootTest
+@Transactional
+class CountQueriesTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @DisplayName("team을 안 쓰면 left join(member.team) 제거")
+    @Test
+    void unreferencedToOneLeftJoin() {
+        QueryMetadata content = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(member.age.goe(10))
+                .orderBy(member.username.asc())
+                .getMetadata();
+
+        QueryMetadata count = CountQueries.derive(content, em.getMetamodel());
+
+        assertThat(count.getJoins()).hasSize(1);
+        assertThat(count.getProjection()).isNull();
+        assertThat(count.getOrderBy()).isEmpty();
+    }
+
+    @DisplayName("where에서 team을 쓰면 조인 유지")
+    @Test
+    void referencedJoin() {
+        QueryMetadata content = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(team.name.eq("teamA"))
+                .getMetadata();
+
+        QueryMetadata count = CountQueries.derive(content, em.getMetamodel());
+
+        assertThat(count.getJoins()).hasSize(2);
+    }
+
+    @DisplayName("fetch join은 일반 조인으로")
+    @Test
+    void fetchJoin() {
+        QueryMetadata content = queryFactory
+                .selectFrom(member)
+                .join(member.team, team).fetchJoin()
+                .getMetadata();
+
+        QueryMetadata count = CountQueries.derive(content, em.getMetamodel());
+
+        assertThat(count.getJoins()).hasSize(2); // inner join은 row 수를 바꿀 수 있으니 유지
+        for (JoinExpression join : count.getJoins()) {
+            assertThat(join.getFlags()).doesNotContain(JPAQueryMixin.FETCH);
+        }
+    }
+
+    @DisplayName("distinct면 select를 유지해서 값의 개수를 센다")
+    @Test
+    void distinct() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member1", 20, teamA));
+        em.persist(new Member("member2", 30, teamA));
+
+        QueryMetadata content = queryFactory
+                .selectDistinct(member.username)
+                .from(member)
+                .getMetadata();
+
+        QueryMetadata count = CountQueries.derive(content, em.getMetamodel());
+
+        assertThat(count.getProjection()).isEqualTo(member.username);
+        assertThat(new JPAQuery<>(em, count).fetchCount()).isEqualTo(2);
+    }
+
+    @DisplayName("여러 컬럼 distinct는 카운트 쿼리를 만들지 않는다")
+    @Test
+    void distinctTuple() {
+        QueryMetadata content = queryFactory
+                .selectDistinct(member.username, member.age)
+                .from(member)
+                .getMetadata();
+
+        assertThat(CountQueries.derive(content, em.getMetamodel())).isNull();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.querydsl.service;
+
+import static com.example.querydsl.entity.QMember.member;
+import static com.example.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.repository.MemberBulkWriter;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+/**
+ * 구간마다 별도 트랜잭션으로 커밋하니까 테스트 트랜잭션(@Transactional) 없이 실행하고 직접 정리한다.
+ */
+@SpringBootTest(properties = {"member.bulk.chunk-size=10", "member.bulk.delete-batch-size=20"})
+class MemberBulkServiceTest {
+    private static final String PREFIX = "bulkServiceTest";
+
+    @Autowired
+    MemberBulkService memberBulkService;
+
+    @Autowired
+    MemberBulkWriter memberBulkWriter;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setup() {
+        Team bulkTeam = new Team(PREFIX);
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Member member = new Member(PREFIX + i, i % 50);
+            member.setTeam(bulkTeam);
+            members.add(member);
+        }
+        memberBulkWriter.write(List.of(bulkTeam), members);
+    }
+
+    @AfterEach
+    void cleanup() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            queryFactory.delete(member).where(member.username.startsWith(PREFIX)).execute();
+            queryFactory.delete(team).where(team.name.eq(PREFIX)).execute();
+        });
+    }
+
+    @DisplayName("id 구간으로 나눠서 수정하고 구간마다 진행 상황을 알려준다")
+    @Test
+    void update() {
+        List<BulkProgress> progress = new CopyOnWriteArrayList<>();
+
+        long updated = memberBulkService.update(member.username.startsWith(PREFIX).and(member.age.lt(10)),
+                                                update -> update.set(member.age, member.age.add(100)),
+                                                progress::add);
+
+        assertEquals(20, updated);
+        assertThat(progress).hasSizeGreaterThan(1);
+        assertEquals(20, progress.stream().mapToLong(BulkProgress::getAffectedRows).sum());
+        assertEquals(20, queryFactory.selectFrom(member)
+                                     .where(member.username.startsWith(PREFIX), member.age.goe(100))
+                                     .fetchCount());
+    }
+
+    @DisplayName("삭제는 구간씩 순서대로, 초당 구간 수 제한")
+    @Test
+    void delete() {
+        List<BulkProgress> progress = new CopyOnWriteArrayList<>();
+        long start = System.nanoTime();
+
+        long deleted = memberBulkService.delete(member.username.startsWith(PREFIX).and(member.age.goe(25)), 20, progress::add);
+
+        assertEquals(50, deleted);
+        assertThat(progress).extracting(BulkProgress::getChunkIndex).isSorted();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo((progress.size() - 1) * 50_000_000L); // 20/s -> 구간 간격 50ms
+        assertEquals(50, queryFactory.selectFrom(member).where(member.username.startsWith(PREFIX)).fetchCount());
+    }
+}
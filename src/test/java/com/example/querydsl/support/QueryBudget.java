@@ -0,0 +1,22 @@
+package com.example.querydsl.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * 테스트 메서드 하나에서 실행할 수 있는 JDBC statement 수의 상한
+ * 클래스에 달면 모든 테스트 메서드의 기본값이 되고, 메서드에 달면 그 값이 우선한다.
+ * {@code @BeforeEach}에서 persist만 하고 flush하지 않은 insert는 테스트 메서드 안에서 flush되니 예산에 포함해야 한다.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+    int value();
+}
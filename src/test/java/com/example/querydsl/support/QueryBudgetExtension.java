@@ -0,0 +1,51 @@
+package com.example.querydsl.support;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import com.example.querydsl.metrics.ThreadQueryCounter;
+
+/**
+ * {@code @QueryBudget} 처리
+ * 테스트 메서드 본문(@BeforeEach/@AfterEach 제외)에서 실행한 statement 수를 ThreadQueryCounter로 세서 예산을 넘으면 실패시킨다.
+ * 테스트 스레드에서 실행한 쿼리만 센다.
+ */
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+    private static final String START = "start";
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(START, ThreadQueryCounter.statements());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        long start = context.getStore(NAMESPACE).remove(START, long.class);
+        if (context.getExecutionException().isPresent()) {
+            return; // 이미 실패한 테스트는 원래 실패 원인을 그대로 보여준다.
+        }
+
+        findBudget(context).ifPresent(budget -> {
+            long executed = ThreadQueryCounter.statements() - start;
+            if (executed > budget.value()) {
+                fail(String.format("%s executed %d JDBC statements, budget is %d (N+1?)",
+                                   context.getDisplayName(), executed, budget.value()));
+            }
+        });
+    }
+
+    private static Optional<QueryBudget> findBudget(ExtensionContext context) {
+        Optional<QueryBudget> onMethod = AnnotationSupport.findAnnotation(context.getTestMethod(), QueryBudget.class);
+        if (onMethod.isPresent()) {
+            return onMethod;
+        }
+        return AnnotationSupport.findAnnotation(context.getTestClass(), QueryBudget.class);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.querydsl.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.querydsl.dto.MemberSearchCondition;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.repository.MemberFetchPlan;
+import com.example.querydsl.repository.MemberJpaRepository;
+
+@SpringBootTest
+@Transactional
+class QueryBudgetExtensionTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    private final QueryBudgetExtension extension = new QueryBudgetExtension();
+
+    @BeforeEach
+    void setup() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamB));
+        em.flush();
+        em.clear();
+    }
+
+    @DisplayName("LAZY로 읽고 team에 접근하면(1 + N) 예산을 넘어서 실패한다")
+    @Test
+    void failsOnLazyLoads() throws Exception {
+        ExtensionContext context = contextFor("budgetOfTwo");
+
+        extension.beforeTestExecution(context);
+        List<Member> members = memberJpaRepository.searchMember(new MemberSearchCondition(), MemberFetchPlan.LAZY);
+        members.forEach(member -> member.getTeam().getName()); // 1 + 2
+
+        AssertionFailedError error = assertThrows(AssertionFailedError.class, () -> extension.afterTestExecution(context));
+        assertThat(error.getMessage()).contains("executed 3 JDBC statements, budget is 2");
+    }
+
+    @DisplayName("fetch join이면 같은 예산 안에 들어온다")
+    @Test
+    void passesWithFetchJoin() throws Exception {
+        ExtensionContext context = contextFor("budgetOfTwo");
+
+        extension.beforeTestExecution(context);
+        List<Member> members = memberJpaRepository.searchMember(new MemberSearchCondition(), MemberFetchPlan.FETCH_JOIN);
+        members.forEach(member -> member.getTeam().getName());
+
+        extension.afterTestExecution(context);
+    }
+
+    @QueryBudget(2)
+    @SuppressWarnings("unused")
+    private void budgetOfTwo() {
+    }
+
+    // 테스트 메서드 대신 budgetOfTwo()에 달린 @QueryBudget을 읽는 ExtensionContext
+    private ExtensionContext contextFor(String budgetMethod) throws NoSuchMethodException {
+        Map<Object, Object> values = new HashMap<>();
+        ExtensionContext.Store store = mock(ExtensionContext.Store.class);
+        doAnswer(invocation -> values.put(invocation.getArgument(0), invocation.getArgument(1))).when(store).put(any(), any());
+        when(store.remove(any(), eq(long.class))).thenAnswer(invocation -> values.remove(invocation.getArgument(0)));
+
+        ExtensionContext context = mock(ExtensionContext.class);
+        when(context.getStore(any())).thenReturn(store);
+        when(context.getExecutionException()).thenReturn(Optional.empty());
+        when(context.getTestMethod()).thenReturn(Optional.of(getClass().getDeclaredMethod(budgetMethod)));
+        when(context.getTestClass()).thenReturn(Optional.of(getClass()));
+        when(context.getDisplayName()).thenReturn(budgetMethod);
+        return context;
+    }
+}